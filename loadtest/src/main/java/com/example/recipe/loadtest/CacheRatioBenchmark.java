@@ -0,0 +1,154 @@
+package com.example.recipe.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+
+/**
+ * WiredTiger cache hit ratio of the two recipe layouts on a synthetic catalog.
+ *
+ * The same catalog is written once with steps and ingredients inline in
+ * recipes and once split into recipe_details, into a scratch database. Each
+ * layout then serves the same Zipf-distributed reads: summary reads of the
+ * recipe document (what list queries, searches and DBRef resolution touch)
+ * and, for a fraction of them, the full recipe (GET /api/recipes/{id}). The
+ * hit ratio and bytes read into the cache are taken from serverStatus around
+ * the measured pass.
+ *
+ * The difference only shows when the inline catalog does not fit in the
+ * cache, so run it against a mongod with a small cache, e.g.
+ * --wiredTigerCacheSizeGB 0.25. Run with
+ * mvn exec:java -Dexec.mainClass=com.example.recipe.loadtest.CacheRatioBenchmark
+ */
+public class CacheRatioBenchmark {
+
+    private static final List<String> WORDS = List.of("stir", "simmer", "chop", "whisk", "fold", "season", "bake",
+            "until", "golden", "gently", "minutes", "heat", "medium", "pan", "bowl", "add", "the", "and", "with",
+            "sauce", "serve", "rest", "slice", "finely", "low", "oven", "cover", "drain", "mix", "taste");
+
+    public static void main(String[] args) {
+        LoadTestSettings settings = LoadTestSettings.load();
+        ConnectionString mongoUri = new ConnectionString(settings.string("loadtest.mongo-uri"));
+        try (MongoClient mongo = MongoClients.create(mongoUri)) {
+            MongoDatabase database = mongo.getDatabase(settings.string("loadtest.cache.database"));
+            Document cache = cacheStats(database);
+            System.out.printf("WiredTiger cache: %.0f MB configured%n",
+                    cache.get("maximum bytes configured", Number.class).doubleValue() / (1 << 20));
+
+            List<Result> results = new ArrayList<>();
+            for (boolean split : new boolean[] { false, true }) {
+                results.add(run(database, settings, split));
+            }
+            database.drop();
+
+            System.out.printf("%-8s %12s %12s %10s %14s %12s%n", "layout", "recipes MB", "details MB",
+                    "hit ratio", "MB into cache", "reads/s");
+            for (Result result : results) {
+                System.out.printf("%-8s %12.1f %12.1f %9.2f%% %14.1f %12.0f%n", result.layout(),
+                        result.recipesBytes() / (double) (1 << 20), result.detailsBytes() / (double) (1 << 20),
+                        100 * result.hitRatio(), result.bytesRead() / (double) (1 << 20), result.readsPerSecond());
+            }
+        }
+    }
+
+    private static Result run(MongoDatabase database, LoadTestSettings settings, boolean split) {
+        String layout = split ? "split" : "inline";
+        int recipeCount = settings.integer("loadtest.cache.recipes");
+        int stepsChars = settings.integer("loadtest.cache.steps-chars");
+        Random random = new Random(settings.integer("loadtest.random-seed"));
+
+        MongoCollection<Document> recipes = database.getCollection("recipes");
+        MongoCollection<Document> details = database.getCollection("recipe_details");
+        recipes.drop();
+        details.drop();
+
+        System.out.printf("Seeding %d recipes (%s)%n", recipeCount, layout);
+        List<ObjectId> authors = new ArrayList<>();
+        for (int a = 0; a < 1000; a++) {
+            authors.add(new ObjectId());
+        }
+        List<Object> ids = new ArrayList<>();
+        List<Document> batch = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int r = 0; r < recipeCount; r++) {
+            ObjectId id = new ObjectId();
+            ids.add(id);
+            Document recipe = CatalogSeeder.recipe(id, authors.get(random.nextInt(authors.size())), r, now, random);
+            recipe.put("steps", steps(stepsChars, random));
+            batch.add(recipe);
+            if (batch.size() == 1000 || r == recipeCount - 1) {
+                if (split) {
+                    CatalogSeeder.insert(details, CatalogSeeder.splitDetails(batch));
+                }
+                CatalogSeeder.insert(recipes, batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        int reads = settings.integer("loadtest.cache.reads");
+        double detailRatio = settings.decimal("loadtest.cache.detail-ratio");
+        ZipfSampler popularity = new ZipfSampler(recipeCount, settings.decimal("loadtest.cache.zipf-exponent"));
+        // Warm-up pass so that both layouts are measured with a populated cache
+        read(recipes, details, split, ids, popularity, reads / 2, detailRatio, random);
+
+        Document before = cacheStats(database);
+        long started = System.nanoTime();
+        read(recipes, details, split, ids, popularity, reads, detailRatio, random);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Document after = cacheStats(database);
+
+        double requested = delta(before, after, "pages requested from the cache");
+        double readIn = delta(before, after, "pages read into cache");
+        return new Result(layout, collectionBytes(database, "recipes"),
+                split ? collectionBytes(database, "recipe_details") : 0,
+                requested == 0 ? 0 : 1 - readIn / requested,
+                (long) delta(before, after, "bytes read into cache"), reads / seconds);
+    }
+
+    private static void read(MongoCollection<Document> recipes, MongoCollection<Document> details, boolean split,
+            List<Object> ids, ZipfSampler popularity, int reads, double detailRatio, Random random) {
+        for (int i = 0; i < reads; i++) {
+            Object id = ids.get(popularity.next(random));
+            recipes.find(Filters.eq("_id", id)).first();
+            if (split && random.nextDouble() < detailRatio) {
+                details.find(Filters.eq("_id", id)).first();
+            }
+        }
+    }
+
+    private static String steps(int chars, Random random) {
+        StringBuilder steps = new StringBuilder(chars + 16);
+        while (steps.length() < chars) {
+            steps.append(CatalogSeeder.pick(WORDS, random)).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return steps.toString();
+    }
+
+    private static Document cacheStats(MongoDatabase database) {
+        Document status = database.runCommand(new Document("serverStatus", 1));
+        return status.get("wiredTiger", Document.class).get("cache", Document.class);
+    }
+
+    private static double delta(Document before, Document after, String key) {
+        return after.get(key, Number.class).doubleValue() - before.get(key, Number.class).doubleValue();
+    }
+
+    private static long collectionBytes(MongoDatabase database, String collection) {
+        Document stats = database.runCommand(new Document("collStats", collection));
+        return stats.get("size", Number.class).longValue();
+    }
+
+    private record Result(String layout, long recipesBytes, long detailsBytes, double hitRatio, long bytesRead,
+            double readsPerSecond) {
+    }
+}
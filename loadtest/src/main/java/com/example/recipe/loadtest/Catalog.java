@@ -0,0 +1,34 @@
+package com.example.recipe.loadtest;
+
+import java.util.List;
+
+/**
+ * Seeded data the traffic generator draws from
+ */
+public record Catalog(List<String> userEmails, List<String> recipeIds) {
+
+    static final List<String> CUISINES = List.of("Italian", "Indian", "Mexican", "Egyptian", "Japanese", "Thai",
+            "French", "Greek", "Chinese", "American");
+
+    static final List<String> INGREDIENTS = List.of("chicken", "beef", "lamb", "salmon", "shrimp", "tofu", "egg",
+            "rice", "pasta", "potato", "tomato", "onion", "garlic", "ginger", "spinach", "mushroom", "pepper",
+            "carrot", "lentils", "chickpeas", "beans", "cheese", "yogurt", "cream", "butter", "lemon", "lime",
+            "coconut", "basil", "cilantro", "cumin", "paprika", "chili", "honey", "flour", "oats", "avocado",
+            "corn", "eggplant", "zucchini");
+
+    static final List<String> DIETS = List.of("Vegan", "Vegetarian", "Keto", "Gluten-Free", "Paleo", "Dairy-Free");
+
+    static final List<String> DISHES = List.of("Curry", "Stew", "Salad", "Soup", "Bowl", "Tacos", "Pie", "Stir Fry",
+            "Bake", "Skewers", "Risotto", "Wrap");
+
+    static final List<String> STYLES = List.of("Spicy", "Creamy", "Smoky", "Classic", "Rustic", "Zesty", "Crispy",
+            "Herby", "Sweet", "Savory");
+
+    static final List<String> SORTS = List.of("relevance", "favorites", "preptime", "createdAt");
+
+    static final long[] PREP_TIMES = { 15, 30, 45, 60 };
+
+    static String email(int user) {
+        return "loadtest-user-" + user + "@example.com";
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.recipe.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Writes a synthetic catalog straight into the API's collections.
+ *
+ * Documents mirror what the API stores through Spring Data (DBRefs for author,
+ * roles and saved recipes, BCrypt passwords), so seeded users can log in and
+ * seeded recipes show up in search. Users are recognisable by their
+ * loadtest-user-N@example.com email; reseeding first removes them and their
+ * recipes, leaving any other data alone.
+ */
+public class CatalogSeeder {
+
+    private static final Pattern LOADTEST_EMAIL = Pattern.compile("^loadtest-user-\\d+@example\\.com$");
+    private static final int BATCH = 1000;
+
+    private final MongoDatabase database;
+    private final LoadTestSettings settings;
+
+    public CatalogSeeder(MongoDatabase database, LoadTestSettings settings) {
+        this.database = database;
+        this.settings = settings;
+    }
+
+    public Catalog seed() {
+        int userCount = settings.integer("loadtest.users");
+        int recipeCount = settings.integer("loadtest.recipes");
+        int savesPerUser = Math.min(settings.integer("loadtest.saves-per-user"), recipeCount);
+        Random random = new Random(settings.integer("loadtest.random-seed"));
+
+        clear();
+        DBRef role = new DBRef("roles", userRole());
+        // One hash for everybody: BCrypt is deliberately slow and the salt does not matter here
+        String password = new BCryptPasswordEncoder().encode(settings.string("loadtest.password"));
+
+        List<ObjectId> userIds = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (int u = 0; u < userCount; u++) {
+            userIds.add(new ObjectId());
+            emails.add(Catalog.email(u));
+        }
+
+        long now = System.currentTimeMillis();
+        List<ObjectId> recipeIds = new ArrayList<>();
+        Map<ObjectId, List<DBRef>> authored = new HashMap<>();
+        List<Document> recipes = new ArrayList<>();
+        for (int r = 0; r < recipeCount; r++) {
+            ObjectId id = new ObjectId();
+            ObjectId author = userIds.get(random.nextInt(userCount));
+            recipeIds.add(id);
+            authored.computeIfAbsent(author, a -> new ArrayList<>()).add(new DBRef("recipes", id));
+            recipes.add(recipe(id, author, r, now - random.nextInt(90 * 24 * 3600) * 1000L, random));
+        }
+
+        // Popular recipes collect most saves, like real traffic
+        ZipfSampler popularity = new ZipfSampler(recipeCount, settings.decimal("loadtest.zipf-exponent"));
+        int[] favorites = new int[recipeCount];
+        List<Document> users = new ArrayList<>();
+        for (int u = 0; u < userCount; u++) {
+            Set<Integer> saved = new LinkedHashSet<>();
+            for (int attempt = 0; saved.size() < savesPerUser && attempt < savesPerUser * 10; attempt++) {
+                saved.add(popularity.next(random));
+            }
+            List<DBRef> savedRefs = new ArrayList<>();
+            for (int r : saved) {
+                favorites[r]++;
+                savedRefs.add(new DBRef("recipes", recipeIds.get(r)));
+            }
+            users.add(new Document("_id", userIds.get(u))
+                    .append("username", "loadtest" + u)
+                    .append("email", emails.get(u))
+                    .append("password", password)
+                    .append("recipesAuthored", authored.getOrDefault(userIds.get(u), List.of()))
+                    .append("recipesSaved", savedRefs)
+                    .append("enabled", true)
+                    .append("roles", List.of(role))
+                    .append("_class", "com.example.recipe.model.User"));
+        }
+        for (int r = 0; r < recipeCount; r++) {
+            recipes.get(r).append("favoritesCount", favorites[r]);
+        }
+
+        insert(database.getCollection("users"), users);
+        if (settings.flag("loadtest.split-details")) {
+            insert(database.getCollection("recipe_details"), splitDetails(recipes));
+        }
+        insert(database.getCollection("recipes"), recipes);
+        return new Catalog(emails, recipeIds.stream().map(ObjectId::toHexString).toList());
+    }
+
+    /**
+     * Catalog of a previous seed, for repeated runs against the same data.
+     * Recipes are ordered by favorites so the Zipf head stays on popular ones.
+     */
+    public Catalog load() {
+        List<ObjectId> userIds = new ArrayList<>();
+        List<String> emails = new ArrayList<>();
+        for (Document user : database.getCollection("users").find(Filters.regex("email", LOADTEST_EMAIL))
+                .projection(Projections.include("email"))) {
+            userIds.add(user.getObjectId("_id"));
+            emails.add(user.getString("email"));
+        }
+        List<String> recipeIds = new ArrayList<>();
+        for (Document recipe : database.getCollection("recipes").find(Filters.in("author.$id", userIds))
+                .projection(Projections.include("_id"))
+                .sort(Sorts.descending("favoritesCount"))) {
+            recipeIds.add(recipe.getObjectId("_id").toHexString());
+        }
+        if (emails.isEmpty() || recipeIds.isEmpty()) {
+            throw new IllegalStateException("No seeded catalog found, run with -Dloadtest.seed=true first");
+        }
+        return new Catalog(emails, recipeIds);
+    }
+
+    private void clear() {
+        List<ObjectId> userIds = new ArrayList<>();
+        for (Document user : database.getCollection("users").find(Filters.regex("email", LOADTEST_EMAIL))
+                .projection(Projections.include("_id"))) {
+            userIds.add(user.getObjectId("_id"));
+        }
+        List<Object> recipeIds = new ArrayList<>();
+        for (Document recipe : database.getCollection("recipes").find(Filters.in("author.$id", userIds))
+                .projection(Projections.include("_id"))) {
+            recipeIds.add(recipe.get("_id"));
+        }
+        for (int from = 0; from < recipeIds.size(); from += BATCH) {
+            database.getCollection("recipe_details").deleteMany(
+                    Filters.in("_id", recipeIds.subList(from, Math.min(from + BATCH, recipeIds.size()))));
+        }
+        database.getCollection("recipes").deleteMany(Filters.in("author.$id", userIds));
+        database.getCollection("users").deleteMany(Filters.in("_id", userIds));
+    }
+
+    private Object userRole() {
+        MongoCollection<Document> roles = database.getCollection("roles");
+        Document role = roles.find(Filters.eq("name", "ROLE_USER")).first();
+        if (role != null) {
+            return role.get("_id");
+        }
+        ObjectId id = new ObjectId();
+        roles.insertOne(new Document("_id", id).append("name", "ROLE_USER")
+                .append("_class", "com.example.recipe.model.Role"));
+        return id;
+    }
+
+    static Document recipe(ObjectId id, ObjectId author, int n, long createdAt, Random random) {
+        String cuisine = pick(Catalog.CUISINES, random);
+        List<String> ingredientNames = new ArrayList<>(pickSome(Catalog.INGREDIENTS, 3 + random.nextInt(6), random));
+        Document ingredients = new Document();
+        for (String ingredient : ingredientNames) {
+            ingredients.put(ingredient, 50 + random.nextInt(451));
+        }
+        String title = pick(Catalog.STYLES, random) + " " + capitalize(ingredientNames.get(0)) + " "
+                + pick(Catalog.DISHES, random) + " " + n;
+        List<String> diets = new ArrayList<>(pickSome(Catalog.DIETS, random.nextInt(3), random));
+        return new Document("_id", id)
+                .append("title", title)
+                .append("titleKey", title.toLowerCase(Locale.ROOT))
+                .append("image", "https://example.com/loadtest/" + n + ".jpg")
+                .append("cuisine", cuisine)
+                .append("cuisineKey", cuisine.toLowerCase(Locale.ROOT))
+                .append("prepTime", Catalog.PREP_TIMES[random.nextInt(Catalog.PREP_TIMES.length)]
+                        - random.nextInt(10))
+                .append("ingredientNames", ingredientNames)
+                .append("ingredients", ingredients)
+                .append("steps", "Prepare the " + String.join(", ", ingredientNames) + ". Cook and serve.")
+                .append("dietaryPreferences", diets)
+                .append("dietaryKeys", diets.stream().map(diet -> diet.toLowerCase(Locale.ROOT)).toList())
+                .append("author", new DBRef("users", author))
+                .append("viewsCount", 0L)
+                .append("createdAt", createdAt)
+                .append("updatedAt", createdAt)
+                .append("_class", "com.example.recipe.model.Recipe");
+    }
+
+    /**
+     * Moves steps and ingredients out of the recipe documents, the layout the
+     * API writes with recipe.storage.split-details on
+     */
+    static List<Document> splitDetails(List<Document> recipes) {
+        List<Document> details = new ArrayList<>();
+        for (Document recipe : recipes) {
+            details.add(new Document("_id", recipe.get("_id"))
+                    .append("ingredients", recipe.remove("ingredients"))
+                    .append("steps", recipe.remove("steps"))
+                    .append("updatedAt", recipe.get("updatedAt"))
+                    .append("_class", "com.example.recipe.model.RecipeDetails"));
+        }
+        return details;
+    }
+
+    static void insert(MongoCollection<Document> collection, List<Document> documents) {
+        for (int from = 0; from < documents.size(); from += BATCH) {
+            collection.insertMany(documents.subList(from, Math.min(from + BATCH, documents.size())));
+        }
+    }
+
+    static String pick(List<String> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static Set<String> pickSome(List<String> values, int count, Random random) {
+        Set<String> picked = new LinkedHashSet<>();
+        while (picked.size() < Math.min(count, values.size())) {
+            picked.add(pick(values, random));
+        }
+        return picked;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+}
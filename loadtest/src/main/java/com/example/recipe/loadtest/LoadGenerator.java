@@ -0,0 +1,221 @@
+package com.example.recipe.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-model traffic generator.
+ *
+ * Requests arrive as a Poisson process at loadtest.rate per second no matter
+ * how fast the API answers, and are sent asynchronously. Latency is measured
+ * from the scheduled arrival time rather than the actual send time, so a
+ * stalled server shows up in the percentiles instead of silently lowering the
+ * offered load (coordinated omission). Requests scheduled during the warm-up
+ * are sent but not recorded.
+ */
+public class LoadGenerator {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final LoadTestSettings settings;
+    private final Catalog catalog;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final HttpClient client;
+    private final Random random;
+    private final ZipfSampler popularity;
+    private final Operation[] mixTable;
+
+    private final AtomicReferenceArray<String> sessions;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(LoadTestSettings settings, Catalog catalog) {
+        this.settings = settings;
+        this.catalog = catalog;
+        this.baseUrl = settings.string("loadtest.base-url");
+        this.requestTimeout = settings.duration("loadtest.request-timeout");
+        this.client = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+        this.random = new Random(settings.integer("loadtest.random-seed"));
+        this.popularity = new ZipfSampler(catalog.recipeIds().size(), settings.decimal("loadtest.zipf-exponent"));
+        this.mixTable = mixTable(settings.mix());
+        this.sessions = new AtomicReferenceArray<>(Math.min(settings.integer("loadtest.sessions"),
+                catalog.userEmails().size()));
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(HIGHEST_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Expands the weights into a lookup table, so picking an operation is one array access
+     */
+    private static Operation[] mixTable(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] table = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                table[i++] = entry.getKey();
+            }
+        }
+        return table;
+    }
+
+    public LoadResult run() throws InterruptedException {
+        openSessions();
+        double rate = settings.decimal("loadtest.rate");
+        long warmupNanos = settings.duration("loadtest.warmup").toNanos();
+        long durationNanos = settings.duration("loadtest.duration").toNanos();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long next = start;
+        while (next < end) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+            Operation operation = mixTable[random.nextInt(mixTable.length)];
+            dispatch(operation, next, next >= measureFrom);
+            next += (long) (-Math.log(1 - random.nextDouble()) * 1e9 / rate);
+        }
+
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+        return new LoadResult(histograms, errorCounts, Duration.ofNanos(durationNanos), inFlight.get());
+    }
+
+    /**
+     * Logs in the session users up front; the LOGIN operation later refreshes them
+     */
+    private void openSessions() {
+        for (int i = 0; i < sessions.length(); i++) {
+            try {
+                HttpResponse<String> response = client.send(login(i), HttpResponse.BodyHandlers.ofString());
+                sessions.set(i, token(response));
+            } catch (Exception ex) {
+                throw new IllegalStateException("Login of " + catalog.userEmails().get(i) + " failed", ex);
+            }
+            if (sessions.get(i) == null) {
+                throw new IllegalStateException("Login of " + catalog.userEmails().get(i) + " was rejected");
+            }
+        }
+    }
+
+    private void dispatch(Operation operation, long scheduledAt, boolean measured) {
+        int session = random.nextInt(sessions.length());
+        HttpRequest request = switch (operation) {
+            case LOGIN -> login(session);
+            case SEARCH -> authorized(session, "/api/recipes/search?" + searchQuery()).GET().build();
+            case FETCH -> authorized(session, "/api/recipes/" + hotRecipe()).GET().build();
+            case SAVE -> authorized(session, "/api/recipes/" + hotRecipe() + "/save")
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+        };
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+            boolean ok = failure == null && response.statusCode() < 400;
+            if (ok && operation == Operation.LOGIN) {
+                String token = token(response);
+                if (token != null) {
+                    sessions.set(session, token);
+                }
+            }
+            if (measured) {
+                if (ok) {
+                    latencies.get(operation).recordValue(Math.min(micros, HIGHEST_MICROS));
+                } else {
+                    errors.get(operation).increment();
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private HttpRequest login(int session) {
+        String body = "{\"email\":\"" + catalog.userEmails().get(session) + "\",\"password\":\""
+                + settings.string("loadtest.password") + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(int session, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Authorization", "Bearer " + sessions.get(session));
+    }
+
+    private String hotRecipe() {
+        return catalog.recipeIds().get(popularity.next(random));
+    }
+
+    /**
+     * Random combination of the unified search filters, mostly first pages
+     */
+    private String searchQuery() {
+        StringJoiner query = new StringJoiner("&");
+        if (random.nextDouble() < 0.4) {
+            query.add(param("cuisine", CatalogSeeder.pick(Catalog.CUISINES, random)));
+        }
+        if (random.nextDouble() < 0.4) {
+            query.add(param("ingredient", CatalogSeeder.pick(Catalog.INGREDIENTS, random)));
+        }
+        if (random.nextDouble() < 0.2) {
+            query.add(param("dietaryPreference", CatalogSeeder.pick(Catalog.DIETS, random)));
+        }
+        if (random.nextDouble() < 0.2) {
+            query.add(param("maxPrepTime", String.valueOf(Catalog.PREP_TIMES[random.nextInt(4)])));
+        }
+        if (random.nextDouble() < 0.1) {
+            query.add(param("searchText", CatalogSeeder.pick(Catalog.DISHES, random)));
+        }
+        query.add(param("sortBy", CatalogSeeder.pick(Catalog.SORTS, random)));
+        query.add(param("page", String.valueOf(random.nextDouble() < 0.8 ? 0 : 1 + random.nextInt(3))));
+        query.add(param("limit", "10"));
+        return query.toString();
+    }
+
+    private static String param(String name, String value) {
+        return name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String token(HttpResponse<String> response) {
+        Matcher matcher = TOKEN.matcher(response.body());
+        return response.statusCode() == 200 && matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.recipe.loadtest;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies (microseconds) and errors per operation over the measured window
+ */
+public record LoadResult(Map<Operation, Histogram> latencies, Map<Operation, Long> errors, Duration duration,
+        int unfinished) {
+
+    private static final String[] PERCENTILES = { "p50", "p90", "p99", "p999" };
+
+    public long requests(Operation operation) {
+        return latencies.get(operation).getTotalCount() + errors.get(operation);
+    }
+
+    public double percentileMillis(Operation operation, String percentile) {
+        double value = switch (percentile) {
+            case "p50" -> 50.0;
+            case "p90" -> 90.0;
+            case "p99" -> 99.0;
+            case "p999" -> 99.9;
+            default -> throw new IllegalArgumentException("Unknown percentile " + percentile);
+        };
+        return latencies.get(operation).getValueAtPercentile(value) / 1000.0;
+    }
+
+    public double errorRate() {
+        long requests = 0;
+        long failed = unfinished;
+        for (Operation operation : Operation.values()) {
+            requests += requests(operation);
+            failed += errors.get(operation);
+        }
+        return requests == 0 ? 0 : (double) failed / (requests + unfinished);
+    }
+
+    public void print(PrintStream out) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.printf("%-8s %9s %8s %9s %9s %9s %9s %9s %9s%n", "op", "requests", "errors", "req/s", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            long requests = requests(operation);
+            if (requests == 0) {
+                continue;
+            }
+            total += requests;
+            Histogram histogram = latencies.get(operation);
+            out.printf("%-8s %9d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", operation.key(), requests,
+                    errors.get(operation), requests / seconds, percentileMillis(operation, "p50"),
+                    percentileMillis(operation, "p90"), percentileMillis(operation, "p99"),
+                    percentileMillis(operation, "p999"), histogram.getMaxValue() / 1000.0);
+        }
+        out.printf("total    %9d %8s %9.1f   error rate %.4f, unfinished %d%n", total, "", total / seconds,
+                errorRate(), unfinished);
+    }
+
+    /**
+     * Full percentile distributions in HdrHistogram's .hgrm format (milliseconds)
+     */
+    public void writeDistributions(File directory) throws FileNotFoundException {
+        directory.mkdirs();
+        for (Operation operation : Operation.values()) {
+            try (PrintStream out = new PrintStream(new File(directory, operation.key() + ".hgrm"))) {
+                latencies.get(operation).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    /**
+     * Thresholds from loadtest.slo.&lt;op&gt;.&lt;percentile&gt; and
+     * loadtest.slo.error-rate that this run exceeded
+     */
+    public List<String> sloViolations(LoadTestSettings settings) {
+        List<String> violations = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            if (requests(operation) == 0) {
+                continue;
+            }
+            for (String percentile : PERCENTILES) {
+                Double limit = settings.optionalDecimal("loadtest.slo." + operation.key() + "." + percentile);
+                double actual = percentileMillis(operation, percentile);
+                if (limit != null && actual > limit) {
+                    violations.add(String.format("%s %s %.1f ms > %.1f ms", operation.key(), percentile, actual,
+                            limit));
+                }
+            }
+        }
+        Double maxErrorRate = settings.optionalDecimal("loadtest.slo.error-rate");
+        if (maxErrorRate != null && errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f > %.4f", errorRate(), maxErrorRate));
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.recipe.loadtest;
+
+import java.io.File;
+import java.util.List;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Entry point: seed (or reuse) the catalog, drive the traffic mix, report and
+ * check the SLOs. Fails with an exception, and so a non-zero exit status, when
+ * a threshold is exceeded.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.load();
+
+        ConnectionString mongoUri = new ConnectionString(settings.string("loadtest.mongo-uri"));
+        Catalog catalog;
+        try (MongoClient mongo = MongoClients.create(mongoUri)) {
+            CatalogSeeder seeder = new CatalogSeeder(mongo.getDatabase(mongoUri.getDatabase()), settings);
+            long started = System.currentTimeMillis();
+            catalog = settings.flag("loadtest.seed") ? seeder.seed() : seeder.load();
+            System.out.printf("Catalog: %d users, %d recipes (%d ms)%n", catalog.userEmails().size(),
+                    catalog.recipeIds().size(), System.currentTimeMillis() - started);
+        }
+
+        System.out.printf("Offering %s req/s for %s after %s warm-up against %s%n",
+                settings.string("loadtest.rate"), settings.string("loadtest.duration"),
+                settings.string("loadtest.warmup"), settings.string("loadtest.base-url"));
+        LoadResult result = new LoadGenerator(settings, catalog).run();
+        result.print(System.out);
+        File reportDir = new File(settings.string("loadtest.report-dir"));
+        result.writeDistributions(reportDir);
+        System.out.println("Latency distributions written to " + reportDir);
+
+        List<String> violations = result.sloViolations(settings);
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("SLO violated: " + violation));
+            throw new IllegalStateException(violations.size() + " SLO threshold(s) exceeded");
+        }
+        System.out.println("All SLOs met");
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.recipe.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings of a load-test run: loadtest.properties overridden by system properties
+ */
+public class LoadTestSettings {
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static LoadTestSettings load() {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot read loadtest.properties", ex);
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("loadtest.")) {
+                properties.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new LoadTestSettings(properties);
+    }
+
+    public String string(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing setting " + key);
+        }
+        return value.trim();
+    }
+
+    public int integer(String key) {
+        return Integer.parseInt(string(key));
+    }
+
+    public double decimal(String key) {
+        return Double.parseDouble(string(key));
+    }
+
+    public boolean flag(String key) {
+        return Boolean.parseBoolean(string(key));
+    }
+
+    public Duration duration(String key) {
+        return Duration.parse(string(key));
+    }
+
+    /**
+     * Optional numeric setting, e.g. an SLO threshold that is not configured
+     */
+    public Double optionalDecimal(String key) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+
+    public Map<Operation, Integer> mix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            int weight = integer("loadtest.mix." + operation.key());
+            if (weight > 0) {
+                mix.put(operation, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix.* must give at least one operation a weight");
+        }
+        return mix;
+    }
+}
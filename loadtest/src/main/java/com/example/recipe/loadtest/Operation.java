@@ -0,0 +1,17 @@
+package com.example.recipe.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Request types of the traffic mix, named after the Postman scenarios they replay
+ */
+public enum Operation {
+    LOGIN, SEARCH, FETCH, SAVE;
+
+    /**
+     * Name used in property keys and report files, e.g. "search"
+     */
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.recipe.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws indexes 0..n-1 with probability proportional to 1 / (rank + 1)^exponent,
+ * so low indexes are the "hot" items. An exponent of 0 is uniform.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int slot = index >= 0 ? index : -index - 1;
+        return Math.min(slot, cumulative.length - 1);
+    }
+}
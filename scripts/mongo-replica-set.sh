@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+#
+# Starts a local single-node replica set for trying read/write routing.
+#
+# With only one member, secondaryPreferred reads fall back to the primary, so
+# the read path is exercised end to end without a real secondary. Run the app
+# with:
+#   SPRING_MONGODB_URI='mongodb://localhost:27018/recipe?replicaSet=rs0' \
+#   RECIPE_MONGO_READ_ROUTING_ENABLED=true ./mvnw spring-boot:run
+#
+# Usage: scripts/mongo-replica-set.sh [port] [dbpath]
+
+set -euo pipefail
+
+PORT="${1:-27018}"
+DBPATH="${2:-/tmp/recipe-rs0}"
+
+mkdir -p "$DBPATH"
+mongod --replSet rs0 --port "$PORT" --dbpath "$DBPATH" --bind_ip localhost --fork \
+  --logpath "$DBPATH/mongod.log"
+
+until mongosh --quiet --port "$PORT" --eval 'db.adminCommand("ping").ok' > /dev/null 2>&1; do
+  sleep 0.5
+done
+
+mongosh --quiet --port "$PORT" --eval "
+  try { rs.status(); } catch (e) {
+    rs.initiate({ _id: 'rs0', members: [{ _id: 0, host: 'localhost:$PORT' }] });
+  }
+"
+echo "Replica set rs0 running on localhost:$PORT (dbpath $DBPATH)"
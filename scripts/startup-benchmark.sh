@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+#
+# Startup-time benchmark: time from JVM launch to the first successful
+# GET /api/recipes/search, for the plain jar and for the fast-start build
+# (Spring AOT + AppCDS archive, fast-start profile).
+#
+# Needs a reachable MongoDB (spring.mongodb.uri) and both builds:
+#   ./mvnw -Pfast-start package -DskipTests
+#
+# Usage: scripts/startup-benchmark.sh [runs] [port]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${2:-18081}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="recipe-0.0.1-SNAPSHOT.jar"
+BASE_URL="http://localhost:${PORT}"
+
+now_ms() {
+  date +%s%3N
+}
+
+# Prints the milliseconds from launch until a search request returns 200
+measure() {
+  local dir="$1"
+  shift
+  local started pid token email
+  email="bench-$(date +%s%N)@example.com"
+
+  started="$(now_ms)"
+  (cd "$dir" && exec java "$@" -Dserver.port="$PORT" -jar "$JAR" > /dev/null 2>&1) &
+  pid=$!
+
+  token=""
+  while [ -z "$token" ]; do
+    token="$(curl -s -X POST "$BASE_URL/api/auth/register" -H 'Content-Type: application/json' \
+      -d "{\"username\":\"bench\",\"email\":\"$email\",\"password\":\"benchmark\"}" 2>/dev/null \
+      | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')" || true
+    [ -z "$token" ] && sleep 0.05
+  done
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" \
+      "$BASE_URL/api/recipes/search?limit=10")" = "200" ]; do
+    sleep 0.05
+  done
+
+  echo $(( $(now_ms) - started ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+run() {
+  local label="$1"
+  shift
+  local total=0 result
+  for _ in $(seq "$RUNS"); do
+    result="$(measure "$@")"
+    total=$(( total + result ))
+    printf '%-12s %6d ms\n' "$label" "$result"
+  done
+  printf '%-12s %6d ms (mean of %d)\n\n' "$label" $(( total / RUNS )) "$RUNS"
+}
+
+run "default" "$ROOT/target"
+run "fast-start" "$ROOT/target/fast-start" \
+  -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start
@@ -0,0 +1,28 @@
+package com.example.recipe.config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.service.RecipeCascadeService;
+
+/**
+ * GET /actuator/cascade - progress of the recipe delete cleanup jobs
+ */
+@Component
+@Endpoint(id = "cascade")
+public class CascadeJobEndpoint {
+
+    private final RecipeCascadeService cascadeService;
+
+    public CascadeJobEndpoint(RecipeCascadeService cascadeService) {
+        this.cascadeService = cascadeService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return cascadeService.progress();
+    }
+}
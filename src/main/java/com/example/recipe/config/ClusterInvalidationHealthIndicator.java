@@ -0,0 +1,28 @@
+package com.example.recipe.config;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.service.ClusterInvalidationService;
+
+/**
+ * DOWN while cache invalidations cannot flow between nodes because
+ * cache_invalidations is not a capped collection; other nodes would then keep
+ * serving stale recipes until their cache TTL.
+ */
+@Component
+public class ClusterInvalidationHealthIndicator implements HealthIndicator {
+
+    private final ClusterInvalidationService clusterInvalidationService;
+
+    public ClusterInvalidationHealthIndicator(ClusterInvalidationService clusterInvalidationService) {
+        this.clusterInvalidationService = clusterInvalidationService;
+    }
+
+    @Override
+    public Health health() {
+        String problem = clusterInvalidationService.channelProblem();
+        return problem == null ? Health.up().build() : Health.down().withDetail("reason", problem).build();
+    }
+}
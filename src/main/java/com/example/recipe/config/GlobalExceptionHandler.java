@@ -3,6 +3,7 @@ package com.example.recipe.config;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,6 +13,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import com.example.recipe.dto.ApiResponse;
 import com.example.recipe.exception.BadRequestException;
+import com.example.recipe.exception.DeadlineExceededException;
+import com.example.recipe.exception.DuplicateRecipeException;
 import com.example.recipe.exception.ForbiddenActionException;
 import com.example.recipe.exception.ResourceNotFoundException;
 
@@ -74,6 +77,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
     }
 
+    @ExceptionHandler(DuplicateRecipeException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDuplicate(DuplicateRecipeException ex) {
+        ApiResponse<Void> body = ApiResponse.failure(ex.getMessage(), HttpStatus.CONFLICT.value());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDeadline(DeadlineExceededException ex) {
+        ApiResponse<Void> body = ApiResponse.failure(ex.getMessage(), HttpStatus.GATEWAY_TIMEOUT.value());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(body);
+    }
+
+    // Mongo unreachable, or no connection free in time
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUnavailable(DataAccessResourceFailureException ex) {
+        ApiResponse<Void> body = ApiResponse.failure("The database is unavailable, please retry shortly",
+                HttpStatus.SERVICE_UNAVAILABLE.value());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "5").body(body);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Void>> handleRuntime(RuntimeException ex) {
         ApiResponse<Void> body = ApiResponse.failure(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -0,0 +1,28 @@
+package com.example.recipe.config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.migration.MigrationRunner;
+
+/**
+ * GET /actuator/migrations - checkpoints and throttle of the online migrations
+ */
+@Component
+@Endpoint(id = "migrations")
+public class MigrationsEndpoint {
+
+    private final MigrationRunner migrationRunner;
+
+    public MigrationsEndpoint(MigrationRunner migrationRunner) {
+        this.migrationRunner = migrationRunner;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return migrationRunner.progress();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.recipe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared with @Indexed, @TextIndexed and @CompoundIndex.
+ *
+ * Spring Data's auto-index-creation is kept off so that nothing touches Mongo
+ * while the context starts. Instead the declared indexes are verified on a
+ * background thread once the application is up; creating an index that already
+ * exists is a no-op. Progress is reported through the "mongoIndexes" startup
+ * task of {@link StartupTasksHealthIndicator}.
+ */
+@Component
+@Slf4j
+public class MongoIndexVerifier {
+
+    static final String TASK = "mongoIndexes";
+
+    private final MongoTemplate mongoTemplate;
+    private final StartupTasksHealthIndicator startupTasks;
+    private final boolean enabled;
+
+    public MongoIndexVerifier(MongoTemplate mongoTemplate, StartupTasksHealthIndicator startupTasks,
+            @Value("${recipe.indexes.verify-on-startup:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.startupTasks = startupTasks;
+        this.enabled = enabled;
+        if (enabled) {
+            startupTasks.begin(TASK);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::verify, "mongo-index-verifier");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Each index is created on its own, so one failing index (e.g. an option
+     * conflict with an existing index) does not keep the others from being
+     * created; the task is reported FAILED at the end if any failed. An
+     * unreachable Mongo stops the run instead of timing out once per index.
+     */
+    void verify() {
+        long started = System.currentTimeMillis();
+        int created = 0;
+        int failed = 0;
+        try {
+            var mappingContext = mongoTemplate.getConverter().getMappingContext();
+            IndexResolver resolver = IndexResolver.create(mappingContext);
+            for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+                if (!entity.isAnnotationPresent(Document.class)) {
+                    continue;
+                }
+                IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+                for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                    try {
+                        indexOps.createIndex(index);
+                        created++;
+                    } catch (DataAccessResourceFailureException ex) {
+                        throw ex;
+                    } catch (RuntimeException ex) {
+                        failed++;
+                        log.error("Creating index {} on {} failed: {}", index.getIndexKeys().toJson(),
+                                entity.getCollection(), ex.getMessage());
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Serve anyway; queries still work, only slower
+            startupTasks.finish(TASK, StartupTasksHealthIndicator.State.FAILED);
+            log.warn("Mongo index verification failed after {} indexes: {}", created, ex.getMessage());
+            return;
+        }
+        if (failed > 0) {
+            startupTasks.finish(TASK, StartupTasksHealthIndicator.State.FAILED);
+            log.warn("Verified {} Mongo indexes, {} failed, in {} ms", created, failed,
+                    System.currentTimeMillis() - started);
+        } else {
+            startupTasks.finish(TASK, StartupTasksHealthIndicator.State.DONE);
+            log.info("Verified {} Mongo indexes in {} ms", created, System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.recipe.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+
+/**
+ * Routes Mongo traffic between the primary and a bounded-staleness read path.
+ *
+ * {@link #writes()} is the application's regular MongoTemplate. When routing is
+ * enabled, {@link #reads()} is a second template on its own MongoClient, with
+ * its own connection pool and a secondaryPreferred read preference limited by
+ * maxStalenessSeconds. It serves search and list queries that tolerate slightly
+ * stale data; writes and read-your-own-write paths stay on the primary. When
+ * routing is disabled both return the primary template.
+ *
+ * The read client is deliberately not a bean: Boot's Mongo auto-configuration
+ * backs off as soon as a MongoClient bean exists, and it must keep creating
+ * and owning the primary client.
+ */
+public class MongoRouter implements DisposableBean {
+
+    private final MongoTemplate primary;
+    private final MongoTemplate secondary;
+    private final MongoClient readClient;
+
+    public MongoRouter(MongoTemplate primary) {
+        this.primary = primary;
+        this.secondary = primary;
+        this.readClient = null;
+    }
+
+    public MongoRouter(MongoTemplate primary, ConnectionString connectionString, long maxStalenessSeconds,
+            int maxPoolSize, int minPoolSize, Duration serverSelectionTimeout, List<CommandListener> commandListeners) {
+        this.primary = primary;
+        this.readClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(connectionString)
+                .commandListenerList(commandListeners)
+                .readPreference(ReadPreference.secondaryPreferred(maxStalenessSeconds, TimeUnit.SECONDS))
+                .applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize).minSize(minPoolSize))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(serverSelectionTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                .applicationName("recipe-reads")
+                .build());
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(readClient,
+                primary.getDb().getName());
+        MappingMongoConverter primaryConverter = (MappingMongoConverter) primary.getConverter();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory),
+                primaryConverter.getMappingContext());
+        converter.setCustomConversions(primaryConverter.getCustomConversions());
+        converter.afterPropertiesSet();
+        this.secondary = new MongoTemplate(factory, converter);
+    }
+
+    public MongoTemplate writes() {
+        return primary;
+    }
+
+    public MongoTemplate reads() {
+        return secondary;
+    }
+
+    public boolean isRouting() {
+        return readClient != null;
+    }
+
+    @Override
+    public void destroy() {
+        if (readClient != null) {
+            readClient.close();
+        }
+    }
+}
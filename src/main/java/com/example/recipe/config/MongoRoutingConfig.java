@@ -0,0 +1,73 @@
+package com.example.recipe.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.mongodb.autoconfigure.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.event.CommandListener;
+
+/**
+ * Connection pools of the write (primary) client and the optional read client.
+ *
+ * recipe.mongo.read-routing.enabled=true sends search and list queries to
+ * secondaries through {@link MongoRouter}. The driver requires
+ * max-staleness of at least 90 seconds. Against a single-node replica set the
+ * read path simply lands on the primary, which keeps the setup testable
+ * locally (see scripts/mongo-replica-set.sh).
+ */
+@Configuration
+public class MongoRoutingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer writePoolCustomizer(
+            @Value("${recipe.mongo.write.pool.max-size:100}") int maxSize,
+            @Value("${recipe.mongo.write.pool.min-size:0}") int minSize,
+            @Value("${recipe.mongo.write.pool.max-wait:PT2M}") Duration maxWait) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Fail fast instead of the driver's 30 s default when no server can be
+     * selected, so reads reach the catalog snapshot fallback quickly. Writes
+     * during a replica set election fail after this long as well.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer serverSelectionCustomizer(
+            @Value("${recipe.mongo.server-selection-timeout:PT5S}") Duration timeout) {
+        return settings -> settings.applyToClusterSettings(cluster -> cluster
+                .serverSelectionTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Command listeners (e.g. {@link SlowQueryProfiler}) observe the primary client
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer commandListenerCustomizer(ObjectProvider<CommandListener> listeners) {
+        return settings -> listeners.orderedStream().forEach(settings::addCommandListener);
+    }
+
+    @Bean
+    public MongoRouter mongoRouter(MongoTemplate mongoTemplate, MongoConnectionDetails connectionDetails,
+            ObjectProvider<CommandListener> listeners,
+            @Value("${recipe.mongo.read-routing.enabled:false}") boolean enabled,
+            @Value("${recipe.mongo.read-routing.max-staleness:PT90S}") Duration maxStaleness,
+            @Value("${recipe.mongo.read.pool.max-size:100}") int maxPoolSize,
+            @Value("${recipe.mongo.read.pool.min-size:0}") int minPoolSize,
+            @Value("${recipe.mongo.server-selection-timeout:PT5S}") Duration serverSelectionTimeout) {
+        if (!enabled) {
+            return new MongoRouter(mongoTemplate);
+        }
+        return new MongoRouter(mongoTemplate, connectionDetails.getConnectionString(), maxStaleness.toSeconds(),
+                maxPoolSize, minPoolSize, serverSelectionTimeout, listeners.orderedStream().toList());
+    }
+}
@@ -40,12 +40,15 @@ public class SecurityConfig {
                                 "/api/public/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html")
+                                "/swagger-ui.html",
+                                "/actuator/health/**")
                         .permitAll()
 
                     
                         .requestMatchers("/api/user/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Metrics, slow query plans, cascade and migration jobs; health stays public above
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                       
                         .anyRequest().authenticated())
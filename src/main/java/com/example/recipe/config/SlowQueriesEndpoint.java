@@ -0,0 +1,38 @@
+package com.example.recipe.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/slowqueries - slowest recent Mongo commands and per-shape
+ * aggregates with sampled explain plans; DELETE clears them
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryProfiler profiler;
+
+    public SlowQueriesEndpoint(SlowQueryProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("thresholdMillis", profiler.thresholdMillis());
+        report.put("shapes", profiler.shapes());
+        report.put("recent", profiler.recent());
+        return report;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
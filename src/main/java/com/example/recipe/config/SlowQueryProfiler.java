@@ -0,0 +1,328 @@
+package com.example.recipe.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Driver-level profiler of slow Mongo commands.
+ *
+ * Registered as a CommandListener on the Mongo clients, so it sees every
+ * command issued through MongoTemplate and the repositories. Each query or
+ * write command is reduced to a normalized shape (collection, command name and
+ * the structure of filter, pipeline, sort and projection with every value
+ * replaced by "?") when it starts. Commands slower than the threshold go into
+ * a fixed-size ring buffer and into per-shape aggregates.
+ *
+ * Once a shape has been slow {@code explain-after} times, an explain
+ * (queryPlanner verbosity) of the last slow command of that shape runs on a
+ * background thread, at most once per {@code explain-interval} per shape, and
+ * the winning plan is attached to the shape. Served at /actuator/slowqueries.
+ */
+@Component
+@Slf4j
+public class SlowQueryProfiler implements CommandListener {
+
+    private static final Set<String> PROFILED = Set.of("find", "aggregate", "count", "distinct", "update",
+            "delete", "findAndModify");
+    private static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct");
+    private static final List<String> SHAPE_FIELDS = List.of("filter", "query", "pipeline", "sort", "projection",
+            "updates", "deletes", "key", "fields", "update");
+    // Session and cluster bookkeeping that explain must not repeat
+    private static final List<String> DRIVER_FIELDS = List.of("lsid", "$db", "$clusterTime", "txnNumber",
+            "$readPreference", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+
+    public record SlowQuery(long timestamp, String database, String collection, String command, String shape,
+            long millis, boolean failed) {
+    }
+
+    public record ShapeStats(String shape, String collection, String command, long count, long totalMillis,
+            long maxMillis, long lastSeen, String planSummary, Document winningPlan, Long explainedAt) {
+    }
+
+    private record Started(String database, String collection, String command, String shapeKey, String shape,
+            BsonDocument explainable) {
+    }
+
+    private static class Aggregate {
+        final String shape;
+        final String collection;
+        final String command;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final AtomicLong maxMillis = new AtomicLong();
+        volatile long lastSeen;
+        volatile BsonDocument lastCommand;
+        volatile String lastDatabase;
+        volatile String planSummary;
+        volatile Document winningPlan;
+        volatile Long explainedAt;
+        final AtomicLong explainRequestedAt = new AtomicLong();
+
+        Aggregate(Started started) {
+            this.shape = started.shape();
+            this.collection = started.collection();
+            this.command = started.command();
+        }
+    }
+
+    private final ObjectProvider<MongoClient> mongoClient;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int maxShapes;
+    private final int explainAfter;
+    private final long explainIntervalMillis;
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Aggregate> shapes = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowQuery> recent;
+    private final AtomicLong recentCursor = new AtomicLong();
+    private final ExecutorService explainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlowQueryProfiler(ObjectProvider<MongoClient> mongoClient,
+            @Value("${recipe.profiler.enabled:true}") boolean enabled,
+            @Value("${recipe.profiler.slow-threshold:PT0.1S}") Duration threshold,
+            @Value("${recipe.profiler.capacity:200}") int capacity,
+            @Value("${recipe.profiler.max-shapes:500}") int maxShapes,
+            @Value("${recipe.profiler.explain-after:3}") int explainAfter,
+            @Value("${recipe.profiler.explain-interval:PT10M}") Duration explainInterval) {
+        this.mongoClient = mongoClient;
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.recent = new AtomicReferenceArray<>(capacity);
+        this.maxShapes = maxShapes;
+        this.explainAfter = explainAfter;
+        this.explainIntervalMillis = explainInterval.toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled || !PROFILED.contains(event.getCommandName())) {
+            return;
+        }
+        // The command document is only valid during this callback, so the shape is built now
+        BsonDocument command = event.getCommand();
+        BsonValue target = command.get(event.getCommandName());
+        String collection = target != null && target.isString() ? target.asString().getValue() : "";
+        BsonDocument shape = new BsonDocument();
+        for (String field : SHAPE_FIELDS) {
+            if (command.containsKey(field)) {
+                shape.put(field, normalize(command.get(field)));
+            }
+        }
+        String shapeJson = shape.toJson();
+        BsonDocument explainable = null;
+        if (EXPLAINABLE.contains(event.getCommandName())) {
+            explainable = command.clone();
+            DRIVER_FIELDS.forEach(explainable::remove);
+        }
+        inFlight.put(event.getRequestId(), new Started(event.getDatabaseName(), collection, event.getCommandName(),
+                collection + "." + event.getCommandName() + " " + shapeJson, shapeJson, explainable));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        finished(event.getRequestId(), event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+    }
+
+    private void finished(int requestId, long elapsedNanos, boolean failed) {
+        Started started = inFlight.remove(requestId);
+        if (started == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long now = System.currentTimeMillis();
+        int slot = (int) (recentCursor.getAndIncrement() % recent.length());
+        recent.set(slot, new SlowQuery(now, started.database(), started.collection(), started.command(),
+                started.shape(), millis, failed));
+
+        Aggregate aggregate = shapes.get(started.shapeKey());
+        if (aggregate == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            aggregate = shapes.computeIfAbsent(started.shapeKey(), key -> new Aggregate(started));
+        }
+        aggregate.count.increment();
+        aggregate.totalMillis.add(millis);
+        aggregate.maxMillis.accumulateAndGet(millis, Math::max);
+        aggregate.lastSeen = now;
+        if (started.explainable() != null) {
+            aggregate.lastCommand = started.explainable();
+            aggregate.lastDatabase = started.database();
+            maybeExplain(aggregate, now);
+        }
+    }
+
+    private void maybeExplain(Aggregate aggregate, long now) {
+        long previous = aggregate.explainRequestedAt.get();
+        if (aggregate.count.sum() < explainAfter
+                || (previous != 0 && now - previous < explainIntervalMillis)
+                || !aggregate.explainRequestedAt.compareAndSet(previous, now)) {
+            return;
+        }
+        explainExecutor.execute(() -> explain(aggregate));
+    }
+
+    private void explain(Aggregate aggregate) {
+        MongoClient client = mongoClient.getIfAvailable();
+        BsonDocument command = aggregate.lastCommand;
+        if (client == null || command == null) {
+            return;
+        }
+        try {
+            Document result = client.getDatabase(aggregate.lastDatabase).runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner")));
+            Document winningPlan = winningPlan(result);
+            aggregate.winningPlan = winningPlan;
+            aggregate.planSummary = winningPlan != null ? summarize(winningPlan) : null;
+            aggregate.explainedAt = System.currentTimeMillis();
+        } catch (RuntimeException ex) {
+            log.warn("Explain of slow {} on {} failed: {}", aggregate.command, aggregate.collection, ex.getMessage());
+        }
+    }
+
+    /**
+     * Winning plan of a find/count explain, or of the $cursor stage of an
+     * aggregate explain on older servers
+     */
+    private static Document winningPlan(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        if (planner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.get(0) instanceof Document first && first.get("$cursor") instanceof Document cursor) {
+            planner = cursor.get("queryPlanner", Document.class);
+        }
+        if (planner == null) {
+            return null;
+        }
+        Document plan = planner.get("winningPlan", Document.class);
+        // Slot-based engine nests the classic-looking tree under queryPlan
+        return plan != null && plan.get("queryPlan") instanceof Document queryPlan ? queryPlan : plan;
+    }
+
+    /**
+     * Stage chain from the root down, e.g. "SORT <- FETCH <- IXSCAN cuisine_1"
+     */
+    private static String summarize(Document plan) {
+        List<String> stages = new ArrayList<>();
+        Document current = plan;
+        while (current != null) {
+            String stage = current.getString("stage");
+            String index = current.getString("indexName");
+            stages.add(index != null ? stage + " " + index : stage);
+            Document child = current.get("inputStage", Document.class);
+            if (child == null && current.get("inputStages") instanceof List<?> inputs && !inputs.isEmpty()
+                    && inputs.get(0) instanceof Document firstInput) {
+                child = firstInput;
+            }
+            current = child;
+        }
+        return String.join(" <- ", stages);
+    }
+
+    /**
+     * Replace every value with "?" while keeping field names, operators and the
+     * structure of nested documents. Arrays of documents (pipelines, $or
+     * branches, update statements) keep one entry per distinct shape.
+     */
+    static BsonValue normalize(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shaped = new BsonDocument();
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                shaped.put(entry.getKey(), normalize(entry.getValue()));
+            }
+            return shaped;
+        }
+        if (value.isArray()) {
+            Set<BsonValue> distinct = new LinkedHashSet<>();
+            for (BsonValue element : value.asArray()) {
+                if (element.isDocument() || element.isArray()) {
+                    distinct.add(normalize(element));
+                }
+            }
+            return distinct.isEmpty() ? PLACEHOLDER : new BsonArray(new ArrayList<>(distinct));
+        }
+        return PLACEHOLDER;
+    }
+
+    public long thresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Slow commands still in the ring buffer, slowest first
+     */
+    public List<SlowQuery> recent() {
+        List<SlowQuery> queries = new ArrayList<>();
+        for (int i = 0; i < recent.length(); i++) {
+            SlowQuery query = recent.get(i);
+            if (query != null) {
+                queries.add(query);
+            }
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::millis).reversed());
+        return queries;
+    }
+
+    /**
+     * Aggregates per query shape, by total time spent
+     */
+    public List<ShapeStats> shapes() {
+        return shapes.values().stream()
+                .map(a -> new ShapeStats(a.shape, a.collection, a.command, a.count.sum(), a.totalMillis.sum(),
+                        a.maxMillis.get(), a.lastSeen, a.planSummary, a.winningPlan, a.explainedAt))
+                .sorted(Comparator.comparingLong(ShapeStats::totalMillis).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        shapes.clear();
+        for (int i = 0; i < recent.length(); i++) {
+            recent.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.recipe.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness of background startup tasks (index verification, warm-up, ...).
+ *
+ * Reports OUT_OF_SERVICE while any registered task is still running. It is part
+ * of the readiness health group, so /actuator/health/readiness only turns UP
+ * once every task has finished, failed or timed out. Liveness is unaffected.
+ */
+@Component
+public class StartupTasksHealthIndicator implements HealthIndicator {
+
+    public enum State {
+        RUNNING, DONE, FAILED, TIMED_OUT
+    }
+
+    private final Map<String, State> tasks = new LinkedHashMap<>();
+
+    public synchronized void begin(String task) {
+        tasks.put(task, State.RUNNING);
+    }
+
+    public synchronized void finish(String task, State state) {
+        tasks.put(task, state);
+    }
+
+    public synchronized boolean isRunning(String task) {
+        return tasks.get(task) == State.RUNNING;
+    }
+
+    @Override
+    public synchronized Health health() {
+        Health.Builder builder = tasks.containsValue(State.RUNNING) ? Health.outOfService() : Health.up();
+        return builder.withDetails(new LinkedHashMap<String, Object>(tasks)).build();
+    }
+}
@@ -3,12 +3,14 @@ package com.example.recipe.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
 import com.example.recipe.dto.ApiResponse;
 import com.example.recipe.dto.AuthRequest;
+import com.example.recipe.dto.RevokeTokenRequest;
 import com.example.recipe.service.AuthService;
 import java.util.Map;
 
@@ -30,4 +32,14 @@ public class AuthController {
         return authService.login(request);
     }
 
+    @PostMapping("/api/auth/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        return authService.logout(authHeader);
+    }
+
+    @PostMapping("/api/admin/tokens/revoke")
+    public ResponseEntity<ApiResponse<Void>> revokeToken(@Valid @RequestBody RevokeTokenRequest request) {
+        return authService.revokeToken(request);
+    }
+
 }
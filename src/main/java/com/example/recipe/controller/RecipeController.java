@@ -2,6 +2,7 @@ package com.example.recipe.controller;
 
 import java.util.List;
 
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,13 +18,30 @@ import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
+import com.example.recipe.model.AuthorStats;
 import com.example.recipe.model.Recipe;
 import com.example.recipe.model.User;
 import com.example.recipe.repository.UserRepository;
 import com.example.recipe.dto.ApiResponse;
+import com.example.recipe.dto.FeedPage;
+import com.example.recipe.dto.MultiSearchRequest;
+import com.example.recipe.dto.MultiSearchResponse;
+import com.example.recipe.dto.RecipeBatch;
+import com.example.recipe.dto.RecipeImportResult;
+import com.example.recipe.dto.RecipePage;
 import com.example.recipe.dto.SearchRequest;
 import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.dto.ShoppingList;
+import com.example.recipe.dto.ShoppingListRequest;
+import com.example.recipe.dto.SimilarRecipe;
+import com.example.recipe.dto.TrendingRecipe;
+import com.example.recipe.service.AuthorStatsService;
+import com.example.recipe.service.FeedService;
+import com.example.recipe.service.MultiSearchService;
 import com.example.recipe.service.RecipeService;
+import com.example.recipe.service.ShoppingListService;
+import com.example.recipe.service.TrendingService;
+import com.example.recipe.service.WarmupService;
 
 import lombok.AllArgsConstructor;
 
@@ -33,6 +51,12 @@ import lombok.AllArgsConstructor;
 public class RecipeController {
 
     private final RecipeService recipeService;
+    private final TrendingService trendingService;
+    private final WarmupService warmupService;
+    private final AuthorStatsService authorStatsService;
+    private final ShoppingListService shoppingListService;
+    private final MultiSearchService multiSearchService;
+    private final FeedService feedService;
     private final UserRepository userRepository;
 
     /**
@@ -45,6 +69,15 @@ public class RecipeController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // Page size of the recipe lists, capped like the feed
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, 50));
+    }
+
+    private static RecipePage page(Slice<Recipe> slice) {
+        return new RecipePage(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
     /**
      * Create a new recipe (authenticated users only)
      * POST /api/recipes
@@ -58,13 +91,50 @@ public class RecipeController {
     }
 
     /**
-     * Get all recipes
-     * GET /api/recipes
+     * Import several recipes at once (authenticated users only)
+     * POST /api/recipes/import
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<RecipeImportResult>> importRecipes(@RequestBody List<Recipe> recipes) {
+        String userId = getCurrentUserId();
+        RecipeImportResult result = recipeService.importRecipes(recipes, userId);
+        ApiResponse<RecipeImportResult> response = ApiResponse.success("Recipes imported", result,
+                HttpStatus.CREATED.value());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Consolidated shopping list for up to 50 recipes, quantities scaled by servings
+     * POST /api/recipes/shopping-list
+     */
+    @PostMapping("/shopping-list")
+    public ResponseEntity<ApiResponse<ShoppingList>> shoppingList(@Valid @RequestBody ShoppingListRequest request) {
+        ShoppingList list = shoppingListService.build(request);
+        ApiResponse<ShoppingList> response = ApiResponse.success("Shopping list built", list, HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get all recipes, newest first or most favorited first
+     * GET /api/recipes?sortBy=favorites&page=0&size=20
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Recipe>>> getAllRecipes() {
-        List<Recipe> recipes = recipeService.getAllRecipes();
-        ApiResponse<List<Recipe>> response = ApiResponse.success("Recipes fetched", recipes, HttpStatus.OK.value());
+    public ResponseEntity<ApiResponse<RecipePage>> getAllRecipes(@RequestParam(defaultValue = "newest") String sortBy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.getAllRecipes(sortBy, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Recipes fetched", recipes, HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get up to 100 recipes in one call, in the requested order; unknown ids are listed separately
+     * GET /api/recipes/batch?ids=id1,id2,id3
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<RecipeBatch>> getRecipesByIds(@RequestParam List<String> ids) {
+        RecipeBatch batch = recipeService.getRecipesByIds(ids);
+        ApiResponse<RecipeBatch> response = ApiResponse.success("Recipes fetched", batch, HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
 
@@ -74,36 +144,97 @@ public class RecipeController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Recipe>> getRecipeById(@PathVariable String id) {
-        return recipeService.getRecipeById(id)
-                .map(recipe -> ResponseEntity.ok(ApiResponse.success("Recipe fetched", recipe, HttpStatus.OK.value())))
+        return recipeService.viewRecipe(id)
+                .map(recipe -> {
+                    // Only existing recipes count, so unknown ids cannot crowd the warm-up set
+                    warmupService.recordFetch(id);
+                    return ResponseEntity.ok(ApiResponse.success("Recipe fetched", recipe, HttpStatus.OK.value()));
+                })
                 .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ApiResponse.failure("Recipe not found", HttpStatus.NOT_FOUND.value())));
     }
 
+    /**
+     * Get trending recipes (time-decayed saves and views), optionally per cuisine
+     * GET /api/recipes/trending?cuisine=Italian&limit=10
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<TrendingRecipe>>> getTrending(
+            @RequestParam(required = false) String cuisine,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TrendingRecipe> recipes = trendingService.getTrending(cuisine, Math.max(1, Math.min(limit, 50)));
+        ApiResponse<List<TrendingRecipe>> response = ApiResponse.success("Trending recipes fetched", recipes,
+                HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Personalized home feed of the current user, newest first; popular
+     * recipes for users who have not saved anything yet
+     * GET /api/recipes/feed?page=0&size=20
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<FeedPage>> getFeed(@RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        String userId = getCurrentUserId();
+        FeedPage feed = feedService.getFeed(userId, Math.max(0, page), Math.max(1, Math.min(size, 50)));
+        ApiResponse<FeedPage> response = ApiResponse.success("Feed fetched", feed, HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get recipes with similar ingredients
+     * GET /api/recipes/{id}/similar?limit=10&preferSameCuisine=true
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<ApiResponse<List<SimilarRecipe>>> getSimilarRecipes(@PathVariable String id,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean preferSameCuisine) {
+        List<SimilarRecipe> recipes = recipeService.getSimilarRecipes(id, Math.max(1, Math.min(limit, 50)),
+                preferSameCuisine);
+        ApiResponse<List<SimilarRecipe>> response = ApiResponse.success("Similar recipes fetched", recipes,
+                HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get all recipes authored by current user
-     * GET /api/recipes/user/my-recipes
+     * GET /api/recipes/user/my-recipes?page=0&size=20
      */
     @GetMapping("/user/my-recipes")
-    public ResponseEntity<ApiResponse<List<Recipe>>> getMyRecipes() {
+    public ResponseEntity<ApiResponse<RecipePage>> getMyRecipes(@RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         String userId = getCurrentUserId();
-        List<Recipe> recipes = recipeService.getRecipesByAuthor(userId);
-        ApiResponse<List<Recipe>> response = ApiResponse.success("My recipes fetched", recipes, HttpStatus.OK.value());
+        RecipePage recipes = page(recipeService.getRecipesByAuthor(userId, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("My recipes fetched", recipes, HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
 
     /**
      * Get recipes authored by a specific user
-     * GET /api/recipes/author/{userId}
+     * GET /api/recipes/author/{userId}?page=0&size=20
      */
     @GetMapping("/author/{userId}")
-    public ResponseEntity<ApiResponse<List<Recipe>>> getRecipesByAuthor(@PathVariable String userId) {
-        List<Recipe> recipes = recipeService.getRecipesByAuthor(userId);
-        ApiResponse<List<Recipe>> response = ApiResponse.success("Author recipes fetched", recipes,
+    public ResponseEntity<ApiResponse<RecipePage>> getRecipesByAuthor(@PathVariable String userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.listRecipesByAuthor(userId, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Author recipes fetched", recipes,
                 HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Recipe count, total favorites and average prep time of an author
+     * GET /api/recipes/author/{userId}/stats
+     */
+    @GetMapping("/author/{userId}/stats")
+    public ResponseEntity<ApiResponse<AuthorStats>> getAuthorStats(@PathVariable String userId) {
+        AuthorStats stats = authorStatsService.getStats(userId);
+        ApiResponse<AuthorStats> response = ApiResponse.success("Author stats fetched", stats, HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Update a recipe (only author can update)
      * PUT /api/recipes/{id}
@@ -167,36 +298,56 @@ public class RecipeController {
 
     /**
      * Search recipes by cuisine
-     * GET /api/recipes/search/cuisine?type=Italian
+     * GET /api/recipes/search/cuisine?type=Italian&page=0&size=20
      */
     @GetMapping("/search/cuisine")
-    public ResponseEntity<ApiResponse<List<Recipe>>> searchByCuisine(@RequestParam String type) {
-        List<Recipe> recipes = recipeService.getRecipesByCuisine(type);
-        ApiResponse<List<Recipe>> response = ApiResponse.success("Recipes by cuisine fetched", recipes,
+    public ResponseEntity<ApiResponse<RecipePage>> searchByCuisine(@RequestParam String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.getRecipesByCuisine(type, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Recipes by cuisine fetched", recipes,
                 HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
 
     /**
      * Search recipes by title
-     * GET /api/recipes/search/title?name=pasta
+     * GET /api/recipes/search/title?name=pasta&page=0&size=20
      */
     @GetMapping("/search/title")
-    public ResponseEntity<ApiResponse<List<Recipe>>> searchByTitle(@RequestParam String name) {
-        List<Recipe> recipes = recipeService.searchRecipesByTitle(name);
-        ApiResponse<List<Recipe>> response = ApiResponse.success("Recipes by title fetched", recipes,
+    public ResponseEntity<ApiResponse<RecipePage>> searchByTitle(@RequestParam String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.searchRecipesByTitle(name, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Recipes by title fetched", recipes,
                 HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
 
     /**
      * Search recipes by dietary tag
-     * GET /api/recipes/search/dietary?tag=vegan
+     * GET /api/recipes/search/dietary?tag=vegan&page=0&size=20
      */
     @GetMapping("/search/dietary")
-    public ResponseEntity<ApiResponse<List<Recipe>>> searchByDietaryTag(@RequestParam String tag) {
-        List<Recipe> recipes = recipeService.getRecipesByDietaryTag(tag);
-        ApiResponse<List<Recipe>> response = ApiResponse.success("Recipes by dietary tag fetched", recipes,
+    public ResponseEntity<ApiResponse<RecipePage>> searchByDietaryTag(@RequestParam String tag,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.getRecipesByDietaryTag(tag, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Recipes by dietary tag fetched", recipes,
+                HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Recipes that take at most maxPrepTime, quickest first
+     * GET /api/recipes/search/prep-time?max=30&page=0&size=20
+     */
+    @GetMapping("/search/prep-time")
+    public ResponseEntity<ApiResponse<RecipePage>> searchByMaxPrepTime(@RequestParam long max,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        RecipePage recipes = page(recipeService.getRecipesByMaxPrepTime(max, Math.max(0, page), pageSize(size)));
+        ApiResponse<RecipePage> response = ApiResponse.success("Recipes by prep time fetched", recipes,
                 HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
@@ -222,8 +373,26 @@ public class RecipeController {
      */
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<SearchResponse>> search(@Valid SearchRequest searchRequest) {
+        warmupService.recordSearch(searchRequest);
         SearchResponse results = recipeService.advancedSearch(searchRequest);
         ApiResponse<SearchResponse> response = ApiResponse.success("Search results", results, HttpStatus.OK.value());
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Several searches in one call (e.g. home screen carousels), run concurrently
+     * POST /api/recipes/multi-search
+     *
+     * Identical searches run once. A search that fails or misses its deadline
+     * is reported in errors under its position; the others are still returned.
+     */
+    @PostMapping("/multi-search")
+    public ResponseEntity<ApiResponse<MultiSearchResponse>> multiSearch(
+            @Valid @RequestBody MultiSearchRequest request) {
+        request.getSearches().forEach(warmupService::recordSearch);
+        MultiSearchResponse results = multiSearchService.search(request);
+        ApiResponse<MultiSearchResponse> response = ApiResponse.success("Search results", results,
+                HttpStatus.OK.value());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+
+import com.example.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPage {
+    private List<Recipe> recipes;
+    // false when the popular-recipes fallback was served
+    private Boolean personalized;
+    private Integer currentPage;
+    private Boolean hasMore;
+}
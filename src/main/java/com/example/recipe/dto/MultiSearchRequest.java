@@ -0,0 +1,22 @@
+package com.example.recipe.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiSearchRequest {
+
+    @NotEmpty(message = "At least one search is required")
+    @Size(max = 10, message = "A multi-search can contain at most 10 searches")
+    @Valid
+    private List<SearchRequest> searches = new ArrayList<>();
+}
@@ -0,0 +1,18 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiSearchResponse {
+    // One entry per requested search, in request order; null where the search failed
+    private List<SearchResponse> results;
+    // Position in the request -> why that search has no result
+    private Map<Integer, String> errors;
+}
@@ -0,0 +1,19 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+
+import com.example.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeBatch {
+    // Found recipes, in the order they were requested
+    private List<Recipe> recipes;
+    // Requested ids that do not exist
+    private List<String> missingIds;
+}
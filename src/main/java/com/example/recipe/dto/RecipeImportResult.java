@@ -0,0 +1,19 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportResult {
+    private List<Recipe> created;
+    // Position in the request -> reason the recipe was rejected
+    private Map<Integer, String> rejected;
+}
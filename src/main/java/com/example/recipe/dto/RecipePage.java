@@ -0,0 +1,19 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+
+import com.example.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipePage {
+    private List<Recipe> recipes;
+    private Integer currentPage;
+    private Integer size;
+    private Boolean hasMore;
+}
@@ -0,0 +1,10 @@
+package com.example.recipe.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RevokeTokenRequest {
+    @NotBlank(message = "Token is required")
+    private String token;
+}
@@ -0,0 +1,18 @@
+package com.example.recipe.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingList {
+    // Normalized ingredient name -> total quantity, alphabetically
+    private Map<String, Double> ingredients;
+    // Requested recipes that do not exist
+    private List<String> missingRecipeIds;
+}
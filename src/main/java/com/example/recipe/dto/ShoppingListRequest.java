@@ -0,0 +1,37 @@
+package com.example.recipe.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingListRequest {
+
+    @NotEmpty(message = "At least one recipe is required")
+    @Size(max = 50, message = "A shopping list can cover at most 50 recipes")
+    @Valid
+    private List<Item> recipes = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotBlank(message = "Recipe id is required")
+        private String recipeId;
+
+        // Multiplier of the recipe's ingredient quantities
+        @Positive(message = "Servings must be positive")
+        private Double servings = 1.0;
+    }
+}
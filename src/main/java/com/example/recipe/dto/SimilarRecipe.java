@@ -0,0 +1,15 @@
+package com.example.recipe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarRecipe {
+    private String id;
+    private String title;
+    private String cuisine;
+    private Double similarity;
+}
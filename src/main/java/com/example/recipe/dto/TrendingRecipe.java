@@ -0,0 +1,17 @@
+package com.example.recipe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingRecipe {
+    private String id;
+    private String title;
+    private String image;
+    private String cuisine;
+    private Integer favoritesCount;
+    private Double trendingScore;
+}
@@ -0,0 +1,12 @@
+package com.example.recipe.event;
+
+/**
+ * What {@link RecipeEventBus#publish(RecipeEvent)} does when the slowest
+ * subscriber is a full ring behind
+ */
+public enum OverflowPolicy {
+    /** Drop the new event right away; the request path never waits */
+    DROP,
+    /** Wait up to the configured block timeout for space, then drop */
+    BLOCK
+}
@@ -0,0 +1,31 @@
+package com.example.recipe.event;
+
+import com.example.recipe.model.Recipe;
+
+/**
+ * Something that happened to a recipe.
+ *
+ * {@code recipe} is the state after the change (CREATED, UPDATED, SAVED,
+ * UNSAVED) or a summary of the removed document (DELETED). {@code userId} is
+ * the acting user: the author for CREATED/UPDATED/DELETED, the saving user
+ * for SAVED/UNSAVED.
+ *
+ * {@code remote} events replay a change made on another node, as received over
+ * the cluster invalidation channel; they carry no user and, for DELETED, no
+ * recipe.
+ */
+public record RecipeEvent(Type type, String recipeId, String userId, Recipe recipe, long timestamp,
+        boolean remote) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, SAVED, UNSAVED
+    }
+
+    public static RecipeEvent of(Type type, Recipe recipe, String userId) {
+        return new RecipeEvent(type, recipe.getId(), userId, recipe, System.currentTimeMillis(), false);
+    }
+
+    public static RecipeEvent remote(Type type, String recipeId, Recipe recipe) {
+        return new RecipeEvent(type, recipeId, null, recipe, System.currentTimeMillis(), true);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.recipe.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process recipe event pipeline.
+ *
+ * Events go into a bounded ring buffer (a power of two in size). Publishing
+ * claims a sequence with a single CAS, so a lone producer never retries and
+ * never takes a lock. Each subscriber has its own thread and its own read
+ * sequence and receives the events it has not seen yet in batches of up to
+ * {@code recipe.events.max-batch}. A slot is only reused once every subscriber
+ * has passed it; when the ring is full the {@link OverflowPolicy} decides
+ * whether the publisher drops the event or waits for a bounded time.
+ *
+ * Metrics: recipe.events.published, recipe.events.dropped, and per subscriber
+ * recipe.events.lag, recipe.events.delivered and recipe.events.errors.
+ */
+@Component
+@Slf4j
+public class RecipeEventBus {
+
+    private final int capacity;
+    private final int mask;
+    private final int maxBatch;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+
+    private final AtomicReferenceArray<RecipeEvent> ring;
+    // Sequence last written to each slot; a slot is readable once it holds the expected sequence
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Consumer> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Counter publishedEvents;
+    private final Counter droppedEvents;
+
+    public RecipeEventBus(List<RecipeEventSubscriber> subscribers, MeterRegistry meterRegistry,
+            @Value("${recipe.events.capacity:8192}") int capacity,
+            @Value("${recipe.events.max-batch:256}") int maxBatch,
+            @Value("${recipe.events.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+            @Value("${recipe.events.block-timeout:PT0.05S}") Duration blockTimeout) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("recipe.events.capacity must be a power of two");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxBatch = maxBatch;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+
+        this.publishedEvents = Counter.builder("recipe.events.published").register(meterRegistry);
+        this.droppedEvents = Counter.builder("recipe.events.dropped")
+                .description("Events dropped because the ring buffer was full")
+                .register(meterRegistry);
+
+        for (RecipeEventSubscriber subscriber : subscribers) {
+            Consumer consumer = new Consumer(subscriber, meterRegistry);
+            consumers.add(consumer);
+            Gauge.builder("recipe.events.lag", consumer, c -> cursor.get() - c.sequence.get())
+                    .description("Events published but not yet handled by the subscriber")
+                    .tag("subscriber", subscriber.subscriberName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Consumer consumer : consumers) {
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * Drain what is already in the ring (bounded wait) and stop the subscriber threads
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            for (Consumer consumer : consumers) {
+                LockSupport.unpark(consumer.thread);
+                consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Publish an event without blocking the caller (unless the BLOCK policy is
+     * configured and the ring is full).
+     *
+     * @return false if the event was dropped
+     */
+    public boolean publish(RecipeEvent event) {
+        long deadline = 0;
+        long sequence;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            if (next - capacity > minConsumerSequence()) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    droppedEvents.increment();
+                    return false;
+                }
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + blockTimeoutNanos;
+                } else if (now - deadline > 0) {
+                    droppedEvents.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(50_000);
+                continue;
+            }
+            if (cursor.compareAndSet(current, next)) {
+                sequence = next;
+                break;
+            }
+        }
+
+        int index = (int) (sequence & mask);
+        ring.set(index, event);
+        published.set(index, sequence);
+        publishedEvents.increment();
+
+        for (Consumer consumer : consumers) {
+            if (consumer.parked) {
+                LockSupport.unpark(consumer.thread);
+            }
+        }
+        return true;
+    }
+
+    private long minConsumerSequence() {
+        long min = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            min = Math.min(min, consumer.sequence.get());
+        }
+        return consumers.isEmpty() ? cursor.get() : min;
+    }
+
+    private final class Consumer implements Runnable {
+
+        private final RecipeEventSubscriber subscriber;
+        private final Thread thread;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private volatile boolean parked;
+
+        private final Counter delivered;
+        private final Counter errors;
+
+        private Consumer(RecipeEventSubscriber subscriber, MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.thread = new Thread(this, "recipe-events-" + subscriber.subscriberName());
+            this.thread.setDaemon(true);
+            this.delivered = Counter.builder("recipe.events.delivered")
+                    .tag("subscriber", subscriber.subscriberName())
+                    .register(meterRegistry);
+            this.errors = Counter.builder("recipe.events.errors")
+                    .tag("subscriber", subscriber.subscriberName())
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            List<RecipeEvent> batch = new ArrayList<>(maxBatch);
+            List<RecipeEvent> view = Collections.unmodifiableList(batch);
+            while (true) {
+                long next = sequence.get() + 1;
+                while (batch.size() < maxBatch) {
+                    int index = (int) (next & mask);
+                    if (published.get(index) != next) {
+                        break;
+                    }
+                    batch.add(ring.get(index));
+                    next++;
+                }
+
+                if (batch.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    parked = true;
+                    // Re-check after announcing the park so a concurrent publish is not missed
+                    if (published.get((int) ((sequence.get() + 1) & mask)) != sequence.get() + 1) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    }
+                    parked = false;
+                    continue;
+                }
+
+                try {
+                    subscriber.onEvents(view);
+                    delivered.increment(batch.size());
+                } catch (RuntimeException ex) {
+                    errors.increment();
+                    log.warn("Subscriber {} failed on {} events: {}", subscriber.subscriberName(), batch.size(),
+                            ex.getMessage());
+                }
+                batch.clear();
+                sequence.set(next - 1);
+            }
+        }
+    }
+}
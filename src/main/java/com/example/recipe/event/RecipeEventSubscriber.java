@@ -0,0 +1,22 @@
+package com.example.recipe.event;
+
+import java.util.List;
+
+/**
+ * Receives recipe events in batches on a dedicated thread of the
+ * {@link RecipeEventBus}. Every Spring bean implementing this interface is
+ * subscribed automatically.
+ */
+public interface RecipeEventSubscriber {
+
+    /**
+     * Name used for thread names and the per-subscriber metrics
+     */
+    String subscriberName();
+
+    /**
+     * Handle a batch of events in publication order. The list is only valid for
+     * the duration of the call.
+     */
+    void onEvents(List<RecipeEvent> events);
+}
@@ -0,0 +1,9 @@
+package com.example.recipe.event;
+
+/**
+ * Application event published when this node may have missed cluster
+ * invalidations (it fell behind the channel or lost its position). Listeners
+ * drop in-process caches and rebuild derived indexes from Mongo.
+ */
+public record RecipeResyncEvent(String reason) {
+}
@@ -0,0 +1,7 @@
+package com.example.recipe.exception;
+
+public class DuplicateRecipeException extends RuntimeException {
+    public DuplicateRecipeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.recipe.migration;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * A backfill over one collection, run online by {@link MigrationRunner}.
+ *
+ * The runner walks the collection in _id order, hands each document matching
+ * {@link #filter()} to {@link #migrate(Document)} and writes the returned
+ * updates in bulk. Every update is applied with the filter as a guard, so a
+ * document the application changed in the meantime is left alone; migrations
+ * must therefore be idempotent and their filter must stop matching once a
+ * document is migrated.
+ */
+public interface Migration {
+
+    // Stable id, the key of the checkpoint in the migrations collection
+    String id();
+
+    // Collection to iterate, e.g. recipes or users
+    String collection();
+
+    // Documents that still need the migration; empty matches all
+    default Criteria filter() {
+        return new Criteria();
+    }
+
+    // Fields to load; empty loads the whole document
+    default List<String> fields() {
+        return List.of();
+    }
+
+    /**
+     * Called with each batch before its updates are written, e.g. to copy
+     * data into another collection first
+     */
+    default void beforeBatch(List<Document> batch) {
+    }
+
+    /**
+     * The update for one document, or null to leave it unchanged
+     */
+    Update migrate(Document document);
+}
@@ -0,0 +1,342 @@
+package com.example.recipe.migration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.model.MigrationCheckpoint;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the {@link Migration} beans online, one after another, on a background
+ * thread.
+ *
+ * A migration walks its collection in _id order: each batch is the next
+ * batch-size documents after the checkpointed _id, and their updates go to the
+ * primary as one unordered bulk write. Progress is checkpointed in the
+ * migrations collection after every batch under a lease, so a migration
+ * resumes where it stopped after a restart and runs on only one node.
+ *
+ * Writes are throttled to recipe.migration.ops-per-second. The throttle adapts
+ * to the primary (AIMD): when a bulk write takes longer than
+ * recipe.migration.latency-target the rate is halved, down to
+ * min-ops-per-second; otherwise it climbs back by a twentieth of the
+ * configured rate per batch.
+ *
+ * Progress is exposed as recipe.migration.* metrics tagged with the migration
+ * id and at /actuator/migrations.
+ */
+@Service
+@Slf4j
+public class MigrationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<Migration> migrations;
+    private final boolean enabled;
+    private final int batchSize;
+    private final double maxOpsPerSecond;
+    private final double minOpsPerSecond;
+    private final Duration latencyTarget;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "migration-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Map<String, Progress> progress = new LinkedHashMap<>();
+    private final Timer writeLatency;
+    private final Counter backoffs;
+
+    public MigrationRunner(MongoTemplate mongoTemplate, List<Migration> migrations, MeterRegistry meterRegistry,
+            @Value("${recipe.migration.enabled:true}") boolean enabled,
+            @Value("${recipe.migration.batch-size:500}") int batchSize,
+            @Value("${recipe.migration.ops-per-second:1000}") double maxOpsPerSecond,
+            @Value("${recipe.migration.min-ops-per-second:20}") double minOpsPerSecond,
+            @Value("${recipe.migration.latency-target:PT0.25S}") Duration latencyTarget,
+            @Value("${recipe.migration.lease:PT5M}") Duration lease,
+            @Value("${recipe.migration.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.migrations = migrations;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+        this.minOpsPerSecond = Math.min(minOpsPerSecond, maxOpsPerSecond);
+        this.latencyTarget = latencyTarget;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+
+        for (Migration migration : migrations) {
+            Progress state = new Progress();
+            progress.put(migration.id(), state);
+            Gauge.builder("recipe.migration.scanned", state.scanned, AtomicLong::get)
+                    .tag("migration", migration.id()).register(meterRegistry);
+            Gauge.builder("recipe.migration.modified", state.modified, AtomicLong::get)
+                    .tag("migration", migration.id()).register(meterRegistry);
+            Gauge.builder("recipe.migration.ops-per-second", state, p -> p.opsPerSecond)
+                    .tag("migration", migration.id())
+                    .description("Current write throttle after latency backoff")
+                    .register(meterRegistry);
+        }
+        this.writeLatency = Timer.builder("recipe.migration.write.latency")
+                .description("Duration of migration bulk writes on the primary")
+                .register(meterRegistry);
+        this.backoffs = Counter.builder("recipe.migration.backoffs")
+                .description("Throttle reductions after a slow bulk write")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground() {
+        runPending();
+    }
+
+    /**
+     * Pick up migrations left unfinished by a failed attempt or another node
+     */
+    @Scheduled(fixedDelayString = "${recipe.migration.resume-interval:PT5M}",
+            initialDelayString = "${recipe.migration.resume-interval:PT5M}")
+    public void runPending() {
+        if (!enabled || migrations.isEmpty() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            scheduled.set(false);
+            for (Migration migration : migrations) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    run(migration);
+                } catch (RuntimeException ex) {
+                    log.warn("Migration {} could not be started: {}", migration.id(), ex.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // A running migration keeps its checkpoint and lease and is resumed on the next start
+        executor.shutdownNow();
+    }
+
+    private void run(Migration migration) {
+        MigrationCheckpoint checkpoint = claim(migration.id());
+        if (checkpoint == null) {
+            return;
+        }
+        Progress state = progress.get(migration.id());
+        state.scanned.set(checkpoint.getScanned());
+        state.modified.set(checkpoint.getModified());
+        state.opsPerSecond = checkpoint.getOpsPerSecond() != null
+                ? Math.min(checkpoint.getOpsPerSecond(), maxOpsPerSecond)
+                : maxOpsPerSecond;
+
+        Object lastId = checkpoint.getLastId();
+        long started = System.currentTimeMillis();
+        long nextWrite = System.nanoTime();
+        log.info("Migration {} {} at _id {}", migration.id(), lastId == null ? "starting" : "resuming", lastId);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Document> batch = nextBatch(migration, lastId);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                // Side writes of the migration count towards the latency of the batch
+                long writeStarted = System.nanoTime();
+                migration.beforeBatch(batch);
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+                        migration.collection());
+                int ops = 0;
+                for (Document document : batch) {
+                    Update update = migration.migrate(document);
+                    if (update != null) {
+                        bulk.updateOne(Query.query(new Criteria().andOperator(
+                                Criteria.where("_id").is(document.get("_id")), migration.filter())), update);
+                        ops++;
+                    }
+                }
+
+                long modified = 0;
+                if (ops > 0) {
+                    modified = bulk.execute().getModifiedCount();
+                    long elapsed = System.nanoTime() - writeStarted;
+                    writeLatency.record(elapsed, TimeUnit.NANOSECONDS);
+                    adjustRate(state, elapsed);
+                }
+                lastId = batch.get(batch.size() - 1).get("_id");
+                state.scanned.addAndGet(batch.size());
+                state.modified.addAndGet(modified);
+                checkpoint(migration.id(), lastId, batch.size(), modified, state.opsPerSecond);
+
+                // Even a batch without writes costs a read on the primary
+                nextWrite += (long) (Math.max(ops, 1) * 1_000_000_000L / state.opsPerSecond);
+                long wait = nextWrite - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } else {
+                    nextWrite = System.nanoTime();
+                }
+            }
+            if (!Thread.currentThread().isInterrupted()) {
+                finish(migration.id(), MigrationCheckpoint.Status.DONE, null);
+                log.info("Migration {} done in {} ms: {} documents scanned, {} modified", migration.id(),
+                        System.currentTimeMillis() - started, state.scanned.get(), state.modified.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Migration {} failed at _id {}: {}", migration.id(), lastId, ex.getMessage());
+            // Only failures count; resuming after a restart or an expired lease does not
+            boolean giveUp = checkpoint.getAttempts() + 1 >= maxAttempts;
+            finish(migration.id(), giveUp ? MigrationCheckpoint.Status.FAILED : MigrationCheckpoint.Status.PENDING,
+                    ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    private List<Document> nextBatch(Migration migration, Object lastId) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(migration.filter());
+        if (lastId != null) {
+            criteria.add(Criteria.where("_id").gt(lastId));
+        }
+        Query query = Query.query(new Criteria().andOperator(criteria))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        if (!migration.fields().isEmpty()) {
+            query.fields().include(migration.fields().toArray(String[]::new));
+        }
+        return mongoTemplate.find(query, Document.class, migration.collection());
+    }
+
+    // Additive increase, multiplicative decrease on the bulk write latency
+    private void adjustRate(Progress state, long elapsedNanos) {
+        if (elapsedNanos > latencyTarget.toNanos()) {
+            state.opsPerSecond = Math.max(minOpsPerSecond, state.opsPerSecond / 2);
+            backoffs.increment();
+        } else {
+            state.opsPerSecond = Math.min(maxOpsPerSecond, state.opsPerSecond + maxOpsPerSecond / 20);
+        }
+    }
+
+    /**
+     * Take the lease on a migration unless it is finished or another node
+     * holds it; the checkpoint is created on first use
+     */
+    private MigrationCheckpoint claim(String id) {
+        long now = System.currentTimeMillis();
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), MigrationCheckpoint.class)) {
+            MigrationCheckpoint checkpoint = new MigrationCheckpoint();
+            checkpoint.setId(id);
+            checkpoint.setStartedAt(now);
+            checkpoint.setUpdatedAt(now);
+            try {
+                mongoTemplate.insert(checkpoint);
+            } catch (DuplicateKeyException ex) {
+                // Created by another node at the same time
+            }
+        }
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").in(MigrationCheckpoint.Status.PENDING, MigrationCheckpoint.Status.RUNNING)
+                .and("lockedUntil").lt(now));
+        Update update = new Update()
+                .set("status", MigrationCheckpoint.Status.RUNNING)
+                .set("lockedUntil", now + lease.toMillis())
+                .set("updatedAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                MigrationCheckpoint.class);
+    }
+
+    private void checkpoint(String id, Object lastId, long scanned, long modified, double opsPerSecond) {
+        long now = System.currentTimeMillis();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("lastId", lastId)
+                        .inc("scanned", scanned)
+                        .inc("modified", modified)
+                        .set("opsPerSecond", opsPerSecond)
+                        .set("lockedUntil", now + lease.toMillis())
+                        .set("updatedAt", now),
+                MigrationCheckpoint.class);
+    }
+
+    private void finish(String id, MigrationCheckpoint.Status status, String error) {
+        long now = System.currentTimeMillis();
+        Update update = new Update()
+                .set("status", status)
+                .set("error", error)
+                .set("lockedUntil", 0L)
+                .set("updatedAt", now);
+        if (status == MigrationCheckpoint.Status.DONE) {
+            update.set("finishedAt", now);
+        } else if (error != null) {
+            update.inc("attempts", 1);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), update, MigrationCheckpoint.class);
+    }
+
+    /**
+     * Progress summary for the actuator endpoint
+     */
+    public Map<String, Object> progress() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Migration migration : migrations) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", migration.id());
+            entry.put("collection", migration.collection());
+            MigrationCheckpoint checkpoint = mongoTemplate.findById(migration.id(), MigrationCheckpoint.class);
+            entry.put("checkpoint", checkpoint);
+            // Rough completion: documents scanned against the collection size
+            long total = mongoTemplate.getCollection(migration.collection()).estimatedDocumentCount();
+            if (checkpoint != null && total > 0) {
+                entry.put("estimatedTotal", total);
+                entry.put("percentScanned", Math.min(100.0, 100.0 * checkpoint.getScanned() / total));
+            }
+            entry.put("currentOpsPerSecond", progress.get(migration.id()).opsPerSecond);
+            entries.add(entry);
+        }
+        result.put("migrations", entries);
+        return result;
+    }
+
+    private static final class Progress {
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong modified = new AtomicLong();
+        private volatile double opsPerSecond;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.recipe.migration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.model.RecipeDetails;
+
+/**
+ * Moves steps and ingredients of existing recipes into recipe_details.
+ *
+ * The details of a batch are written first, and only then are the fields
+ * removed from the recipes. Missing details are inserted with $setOnInsert.
+ * Existing details are overwritten only when the recipe was updated after
+ * them, which happens when the split was turned off and on again and the
+ * recipe was edited in between; details the application wrote later are
+ * never replaced with older data.
+ */
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "recipe.storage.split-details", havingValue = "true", matchIfMissing = true)
+public class RecipeDetailsSplit implements Migration {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RecipeDetailsSplit(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String id() {
+        return "recipe-details-split";
+    }
+
+    @Override
+    public String collection() {
+        return "recipes";
+    }
+
+    @Override
+    public Criteria filter() {
+        return new Criteria().orOperator(Criteria.where("steps").exists(true),
+                Criteria.where("ingredients").exists(true));
+    }
+
+    @Override
+    public List<String> fields() {
+        return List.of("steps", "ingredients", "updatedAt");
+    }
+
+    @Override
+    public void beforeBatch(List<Document> batch) {
+        Query existingQuery = Query.query(Criteria.where("_id").in(batch.stream().map(recipe -> recipe.get("_id"))
+                .toList()));
+        existingQuery.fields().include("updatedAt");
+        Map<String, RecipeDetails> existing = new HashMap<>();
+        for (RecipeDetails details : mongoTemplate.find(existingQuery, RecipeDetails.class)) {
+            existing.put(details.getId(), details);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecipeDetails.class);
+        long now = System.currentTimeMillis();
+        boolean writes = false;
+        for (Document recipe : batch) {
+            Object id = recipe.get("_id");
+            RecipeDetails details = existing.get(id.toString());
+            if (details == null) {
+                // $setOnInsert: details the application inserted since the batch was read are kept
+                bulk.upsert(Query.query(Criteria.where("_id").is(id)), new Update()
+                        .setOnInsert("ingredients", recipe.get("ingredients", new Document()))
+                        .setOnInsert("steps", recipe.get("steps"))
+                        .setOnInsert("updatedAt", now)
+                        .setOnInsert("_class", RecipeDetails.class.getName()));
+                writes = true;
+            } else if (isNewer(recipe, details)) {
+                // Guarded by the updatedAt just read, so details rewritten since then are kept
+                bulk.updateOne(Query.query(Criteria.where("_id").is(id).and("updatedAt").is(details.getUpdatedAt())),
+                        new Update()
+                                .set("ingredients", recipe.get("ingredients", new Document()))
+                                .set("steps", recipe.get("steps"))
+                                .set("updatedAt", now));
+                writes = true;
+            }
+        }
+        if (writes) {
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Whether the inline fields were saved after the details, i.e. the recipe
+     * was edited while the split was turned off
+     */
+    private static boolean isNewer(Document recipe, RecipeDetails details) {
+        long recipeUpdatedAt = recipe.get("updatedAt") instanceof Number updatedAt ? updatedAt.longValue() : 0;
+        return details.getUpdatedAt() == null || details.getUpdatedAt() < recipeUpdatedAt;
+    }
+
+    @Override
+    public Update migrate(Document document) {
+        return new Update().unset("steps").unset("ingredients");
+    }
+}
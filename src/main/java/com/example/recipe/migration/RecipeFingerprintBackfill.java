@@ -0,0 +1,55 @@
+package com.example.recipe.migration;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.model.Recipe;
+import com.example.recipe.service.RecipeFingerprints;
+
+/**
+ * Computes simHash and simHashBands for recipes created before near-duplicate
+ * detection existed, so that they can be found as duplicates too. Runs before
+ * {@link RecipeDetailsSplit}, while the steps are still in the recipes.
+ */
+@Component
+@Order(1)
+public class RecipeFingerprintBackfill implements Migration {
+
+    @Override
+    public String id() {
+        return "recipe-simhash-backfill";
+    }
+
+    @Override
+    public String collection() {
+        return "recipes";
+    }
+
+    @Override
+    public Criteria filter() {
+        return Criteria.where("simHash").exists(false);
+    }
+
+    @Override
+    public List<String> fields() {
+        return List.of("title", "ingredientNames", "steps");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Update migrate(Document document) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(document.getString("title"));
+        recipe.setIngredientNames(document.get("ingredientNames", List.class));
+        recipe.setSteps(document.getString("steps"));
+        long simHash = RecipeFingerprints.simHash(recipe);
+        return new Update()
+                .set("simHash", simHash)
+                .set("simHashBands", RecipeFingerprints.bands(simHash));
+    }
+}
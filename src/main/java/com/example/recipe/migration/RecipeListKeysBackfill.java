@@ -0,0 +1,50 @@
+package com.example.recipe.migration;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.service.RecipeKeys;
+
+/**
+ * Sets titleKey, cuisineKey and dietaryKeys on recipes saved before the paged
+ * lists matched on them; until it has finished such recipes are missing from
+ * the cuisine, title and dietary lists.
+ */
+@Component
+@Order(3)
+public class RecipeListKeysBackfill implements Migration {
+
+    @Override
+    public String id() {
+        return "recipe-list-keys-backfill";
+    }
+
+    @Override
+    public String collection() {
+        return "recipes";
+    }
+
+    @Override
+    public Criteria filter() {
+        return Criteria.where("dietaryKeys").exists(false);
+    }
+
+    @Override
+    public List<String> fields() {
+        return List.of("title", "cuisine", "dietaryPreferences");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Update migrate(Document document) {
+        return new Update()
+                .set("titleKey", RecipeKeys.key(document.getString("title")))
+                .set("cuisineKey", RecipeKeys.key(document.getString("cuisine")))
+                .set("dietaryKeys", RecipeKeys.keys(document.get("dietaryPreferences", List.class)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.recipe.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Materialized per-author statistics, kept up to date with $inc on every
+ * recipe change and periodically recomputed from the recipes collection.
+ *
+ * The average prep time is derived from a sum and a count so that it can be
+ * maintained incrementally.
+ */
+@Document(collection = "author_stats")
+@Data
+@NoArgsConstructor
+public class AuthorStats {
+
+    // Id of the author (user)
+    @Id
+    private String id;
+
+    private Long recipeCount = 0L;
+
+    private Long totalFavorites = 0L;
+
+    private Long totalPrepTime = 0L;
+
+    // Recipes that have a prepTime, the denominator of the average
+    private Long prepTimeCount = 0L;
+
+    private Long reconciledAt;
+
+    public AuthorStats(String id) {
+        this.id = id;
+    }
+
+    public Double getAveragePrepTime() {
+        return prepTimeCount == null || prepTimeCount == 0 ? null : (double) totalPrepTime / prepTimeCount;
+    }
+}
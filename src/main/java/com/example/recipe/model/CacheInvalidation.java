@@ -0,0 +1,43 @@
+package com.example.recipe.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One batch of recipe changes broadcast to the other nodes.
+ *
+ * Stored in a capped collection and read with a tailable cursor; the ObjectId
+ * gives the insertion order. Only ids travel, receivers reload what they need.
+ */
+@Document(collection = "cache_invalidations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    private ObjectId id;
+
+    // Node that made the changes; it skips its own messages
+    private String origin;
+
+    // Recipes created or updated
+    private List<String> upserted = new ArrayList<>();
+
+    private List<String> deleted = new ArrayList<>();
+
+    // Net change of favoritesCount per recipe from saves and unsaves
+    private Map<String, Integer> favorites = new HashMap<>();
+
+    private Long createdAt;
+}
@@ -0,0 +1,42 @@
+package com.example.recipe.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Cleanup of a deleted recipe's references from users, resumable after a restart
+ */
+@Document(collection = "cascade_jobs")
+@Data
+public class CascadeJob {
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    // Id of the deleted recipe
+    @Id
+    private String id;
+
+    @Indexed
+    private Status status = Status.PENDING;
+
+    // Checkpoint: users up to and including this _id are cleaned up
+    private String lastUserId;
+
+    private Long usersUpdated = 0L;
+
+    private Integer attempts = 0;
+
+    // Lease so that only one node works on a job at a time
+    private Long lockedUntil = 0L;
+
+    private String error;
+
+    private Long createdAt;
+
+    private Long updatedAt;
+}
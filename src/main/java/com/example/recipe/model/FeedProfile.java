@@ -0,0 +1,50 @@
+package com.example.recipe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a user likes, derived from the recipes they saved.
+ *
+ * Each list is indexed so that a new recipe finds the users it should be
+ * fanned out to with one query.
+ */
+@Document(collection = "feed_profiles")
+@Data
+@NoArgsConstructor
+public class FeedProfile {
+
+    // Id of the user
+    @Id
+    private String id;
+
+    // Most saved cuisines, spelled as on the recipes
+    @Indexed
+    private List<String> cuisines = new ArrayList<>();
+
+    @Indexed
+    private List<String> dietaryPreferences = new ArrayList<>();
+
+    // Ids of authors the user saved several recipes from
+    @Indexed
+    private List<String> authors = new ArrayList<>();
+
+    private Integer savedCount = 0;
+
+    private Long updatedAt;
+
+    public FeedProfile(String id) {
+        this.id = id;
+    }
+
+    public boolean isEmpty() {
+        return cuisines.isEmpty() && dietaryPreferences.isEmpty() && authors.isEmpty();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.recipe.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+
+/**
+ * Progress of one online migration, resumable after a restart
+ */
+@Document(collection = "migrations")
+@Data
+public class MigrationCheckpoint {
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    // Id of the migration
+    @Id
+    private String id;
+
+    private Status status = Status.PENDING;
+
+    // Checkpoint: documents up to and including this _id are migrated
+    private Object lastId;
+
+    private Long scanned = 0L;
+
+    private Long modified = 0L;
+
+    // Throttle at the last checkpoint, after latency backoff
+    private Double opsPerSecond;
+
+    // Failed runs; after recipe.migration.max-attempts the migration is FAILED
+    private Integer attempts = 0;
+
+    // Lease so that only one node runs a migration at a time
+    private Long lockedUntil = 0L;
+
+    private String error;
+
+    private Long startedAt;
+
+    private Long updatedAt;
+
+    private Long finishedAt;
+}
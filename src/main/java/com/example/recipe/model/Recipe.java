@@ -6,16 +6,29 @@ import java.util.Map;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Data;
 
 @Document(collection = "recipes")
+@CompoundIndexes({
+        // Paged lists: equality (or range) on the filter, then newest first by _id
+        @CompoundIndex(name = "cuisineKey_id", def = "{'cuisineKey': 1, '_id': -1}"),
+        @CompoundIndex(name = "titleKey_id", def = "{'titleKey': 1, '_id': -1}"),
+        @CompoundIndex(name = "dietaryKeys_id", def = "{'dietaryKeys': 1, '_id': -1}"),
+        @CompoundIndex(name = "author_id", def = "{'author.$id': 1, '_id': -1}"),
+        @CompoundIndex(name = "prepTime_id", def = "{'prepTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "favoritesCount_id", def = "{'favoritesCount': -1, '_id': -1}")
+})
 @Data
 public class Recipe {
 
@@ -30,7 +43,16 @@ public class Recipe {
     @Indexed
     private String cuisine;
 
-    @Indexed
+    // Trimmed, lower-cased title, cuisine and dietary tags, see RecipeKeys
+    @JsonIgnore
+    private String titleKey;
+
+    @JsonIgnore
+    private String cuisineKey;
+
+    @JsonIgnore
+    private java.util.List<String> dietaryKeys = new java.util.ArrayList<>();
+
     private Long prepTime;
 
     private java.util.List<String> ingredientNames = new java.util.ArrayList<>();
@@ -46,9 +68,23 @@ public class Recipe {
     @JsonIgnoreProperties({ "password", "recipesAuthored", "recipesSaved", "roles" })
     private User author;
 
-    @Indexed
     private Integer favoritesCount = 0;
 
+    private Long viewsCount = 0L;
+
+    // 64-bit SimHash of title, ingredients and steps, see RecipeFingerprints
+    @JsonIgnore
+    private Long simHash;
+
+    // simHash split into 16-bit bands ("<band>:<hex>") for near-duplicate lookups
+    @Indexed
+    @JsonIgnore
+    private java.util.List<String> simHashBands = new java.util.ArrayList<>();
+
+    // Set when the recipe was accepted although it looks like a near-duplicate
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String duplicateOf;
+
     @CreatedDate
     private Long createdAt;
 
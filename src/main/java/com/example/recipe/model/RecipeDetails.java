@@ -0,0 +1,35 @@
+package com.example.recipe.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The heavy part of a recipe, kept out of the recipes collection.
+ *
+ * List queries, searches and DBRef resolution only ever need the summary in
+ * recipes; the free-text steps and the ingredient quantities are read from
+ * here only when a single recipe is shown.
+ */
+@Document(collection = "recipe_details")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeDetails {
+
+    // Same id as the recipe
+    @Id
+    private String id;
+
+    private Map<String, Integer> ingredients = new HashMap<>();
+
+    private String steps;
+
+    private Long updatedAt;
+}
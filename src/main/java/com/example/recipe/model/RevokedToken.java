@@ -0,0 +1,41 @@
+package com.example.recipe.model;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A JWT that must no longer be accepted, keyed by its jti claim.
+ *
+ * Mongo removes the entry once the token would have expired anyway, so the
+ * collection only ever holds revocations that still matter.
+ */
+@Document(collection = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    // The token's jti claim
+    @Id
+    private String id;
+
+    // Email of the user the token was issued to
+    private String subject;
+
+    // Expiry of the token; TTL index, the document is deleted after this time
+    @Indexed(expireAfter = "0s")
+    private Date expiresAt;
+
+    @Indexed
+    private Long revokedAt;
+
+    // logout or admin
+    private String reason;
+}
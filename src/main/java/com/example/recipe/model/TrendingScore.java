@@ -0,0 +1,36 @@
+package com.example.recipe.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Persisted trending score of a recipe.
+ *
+ * The score is stored "forward decayed": it is relative to {@code landmark}
+ * (epoch millis), so it never has to be rewritten just because time passed.
+ * All nodes increment the score against the same landmark; documents are
+ * rescaled when the shared landmark moves forward.
+ */
+@Document(collection = "recipe_trending")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingScore {
+
+    @Id
+    private String id;
+
+    private String cuisine;
+
+    private Double score;
+
+    @Indexed
+    private Long landmark;
+
+    private Long updatedAt;
+}
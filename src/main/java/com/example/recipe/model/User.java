@@ -1,6 +1,8 @@
 package com.example.recipe.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -11,6 +13,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Document(collection = "users")
+@CompoundIndexes({
+        // Used to find the users still referencing a deleted recipe
+        @CompoundIndex(name = "recipesAuthored_ref", def = "{'recipesAuthored': 1}"),
+        @CompoundIndex(name = "recipesSaved_ref", def = "{'recipesSaved': 1}")
+})
 @Data
 public class User {
     @Id
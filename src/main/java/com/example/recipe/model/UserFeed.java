@@ -0,0 +1,47 @@
+package com.example.recipe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Precomputed home feed of one user, newest first.
+ *
+ * New recipes are pushed at the front when they are created and the list is
+ * cut to recipe.feed.max-size, so a page is read with one _id lookup and a
+ * $slice projection.
+ */
+@Document(collection = "user_feeds")
+@Data
+@NoArgsConstructor
+public class UserFeed {
+
+    // Id of the user
+    @Id
+    private String id;
+
+    private List<Entry> entries = new ArrayList<>();
+
+    private Long seededAt;
+
+    private Long updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        private String recipeId;
+
+        // Why the recipe is in the feed: cuisine, dietary or author
+        private String reason;
+
+        private Long addedAt;
+    }
+}
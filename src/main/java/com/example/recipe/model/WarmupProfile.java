@@ -0,0 +1,38 @@
+package com.example.recipe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.recipe.dto.SearchRequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Traffic profile captured by the previous run, replayed by the startup warm-up.
+ *
+ * {@code searches} holds the most frequent search filter combinations (page
+ * reset to 0) and {@code recipeIds} the most fetched recipes, both ordered by
+ * frequency.
+ */
+@Document(collection = "warmup_profile")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupProfile {
+
+    public static final String CURRENT = "current";
+
+    @Id
+    private String id = CURRENT;
+
+    private List<SearchRequest> searches = new ArrayList<>();
+
+    private List<String> recipeIds = new ArrayList<>();
+
+    private Long updatedAt;
+}
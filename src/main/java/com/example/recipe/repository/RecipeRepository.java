@@ -2,6 +2,8 @@ package com.example.recipe.repository;
 
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
@@ -9,13 +11,8 @@ import com.example.recipe.model.Recipe;
 
 public interface RecipeRepository extends MongoRepository<Recipe, String> {
 
-    List<Recipe> findByAuthorId(String authorId);
-   
-    List<Recipe> findByTitleIgnoreCase(String title);
-  
-    List<Recipe> findByCuisineIgnoreCase(String cuisine);
-
-    List<Recipe> findByDietaryPreferencesContainingIgnoreCase(String dietaryPref);
+    // Pass a sort matching the author_id index, e.g. _id descending
+    Slice<Recipe> findByAuthorId(String authorId, Pageable pageable);
 
     @Query("{ $text: { $search: ?0 } }")
     List<Recipe> findByTextSearch(String searchText);
@@ -23,9 +20,4 @@ public interface RecipeRepository extends MongoRepository<Recipe, String> {
     List<Recipe> findByIngredientNamesContainingIgnoreCase(String ingredientName);
 
     Optional<Recipe> findByTitleIgnoreCaseAndAuthorId(String title, String authorId);
-
-    List<Recipe> findByPrepTimeLessThanEqual(Long maxPrepTime);
-
-    @Query("{ }")
-    List<Recipe> findAllOrderByFavorites();
-}
\ No newline at end of file
+}
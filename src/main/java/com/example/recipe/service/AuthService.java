@@ -12,11 +12,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import com.example.recipe.config.JwtService;
 import com.example.recipe.dto.ApiResponse;
 import com.example.recipe.dto.AuthRequest;
+import com.example.recipe.dto.RevokeTokenRequest;
 import com.example.recipe.model.Role;
 import com.example.recipe.model.User;
 import com.example.recipe.repository.RoleRepository;
 import com.example.recipe.repository.UserRepository;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.AllArgsConstructor;
 import java.util.Map;
 
@@ -29,6 +32,7 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
     public ResponseEntity<ApiResponse<Map<String, String>>> register(@RequestBody AuthRequest request) {
 
@@ -78,4 +82,31 @@ public class AuthService {
         }
     }
 
+    public ResponseEntity<ApiResponse<Void>> logout(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            ApiResponse<Void> response = ApiResponse.failure("Bearer token is required",
+                    HttpStatus.BAD_REQUEST.value());
+            return ResponseEntity.badRequest().body(response);
+        }
+        return revoke(authHeader.substring(7), "logout", "Logged out successfully");
+    }
+
+    public ResponseEntity<ApiResponse<Void>> revokeToken(RevokeTokenRequest request) {
+        return revoke(request.getToken(), "admin", "Token revoked");
+    }
+
+    private ResponseEntity<ApiResponse<Void>> revoke(String token, String reason, String message) {
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(token);
+        } catch (JwtException ex) {
+            // Expired or forged tokens are rejected anyway
+            ApiResponse<Void> response = ApiResponse.failure("Invalid or expired token",
+                    HttpStatus.UNAUTHORIZED.value());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        tokenRevocationService.revoke(claims, reason);
+        return ResponseEntity.ok(ApiResponse.success(message, null, HttpStatus.OK.value()));
+    }
+
 }
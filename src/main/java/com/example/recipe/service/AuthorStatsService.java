@@ -0,0 +1,142 @@
+package com.example.recipe.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.model.AuthorStats;
+import com.example.recipe.model.Recipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the author_stats collection.
+ *
+ * Every recipe change applies its delta with one atomic upserting $inc on the
+ * author's document, so reading the stats is a single findById. A failed $inc
+ * is logged and left to the reconciliation job, which recomputes all stats
+ * from the recipes collection with $group and writes them back with $merge.
+ * An $inc that lands while the job runs can be overwritten; the next run
+ * corrects it.
+ */
+@Service
+@Slf4j
+public class AuthorStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean reconcileEnabled;
+
+    public AuthorStatsService(MongoTemplate mongoTemplate,
+            @Value("${recipe.author-stats.reconcile.enabled:true}") boolean reconcileEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.reconcileEnabled = reconcileEnabled;
+    }
+
+    public AuthorStats getStats(String authorId) {
+        AuthorStats stats = mongoTemplate.findById(authorId, AuthorStats.class);
+        return stats != null ? stats : new AuthorStats(authorId);
+    }
+
+    public void recipesCreated(String authorId, List<Recipe> recipes) {
+        Update update = new Update();
+        long prepTime = 0;
+        long prepTimeCount = 0;
+        long favorites = 0;
+        for (Recipe recipe : recipes) {
+            if (recipe.getPrepTime() != null) {
+                prepTime += recipe.getPrepTime();
+                prepTimeCount++;
+            }
+            favorites += recipe.getFavoritesCount() != null ? recipe.getFavoritesCount() : 0;
+        }
+        update.inc("recipeCount", recipes.size())
+                .inc("totalPrepTime", prepTime)
+                .inc("prepTimeCount", prepTimeCount)
+                .inc("totalFavorites", favorites);
+        apply(authorId, update);
+    }
+
+    public void recipeDeleted(String authorId, Recipe removed) {
+        Update update = new Update().inc("recipeCount", -1)
+                .inc("totalFavorites", removed.getFavoritesCount() != null ? -removed.getFavoritesCount() : 0);
+        if (removed.getPrepTime() != null) {
+            update.inc("totalPrepTime", -removed.getPrepTime()).inc("prepTimeCount", -1);
+        }
+        apply(authorId, update);
+    }
+
+    public void prepTimeChanged(String authorId, Long oldPrepTime, Long newPrepTime) {
+        if (oldPrepTime == null ? newPrepTime == null : oldPrepTime.equals(newPrepTime)) {
+            return;
+        }
+        Update update = new Update()
+                .inc("totalPrepTime", (newPrepTime != null ? newPrepTime : 0) - (oldPrepTime != null ? oldPrepTime : 0))
+                .inc("prepTimeCount", (newPrepTime != null ? 1 : 0) - (oldPrepTime != null ? 1 : 0));
+        apply(authorId, update);
+    }
+
+    public void favoritesChanged(Recipe recipe, int delta) {
+        if (recipe.getAuthor() != null) {
+            apply(recipe.getAuthor().getId(), new Update().inc("totalFavorites", delta));
+        }
+    }
+
+    private void apply(String authorId, Update update) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(authorId)), update, AuthorStats.class);
+        } catch (RuntimeException ex) {
+            log.warn("Updating stats of author {} failed, left to reconciliation: {}", authorId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every author's stats from the recipes and replace the stored
+     * documents. Authors without recipes anymore are not produced by the
+     * aggregation, so their documents are the ones not stamped by this run.
+     */
+    @Scheduled(fixedDelayString = "${recipe.author-stats.reconcile.interval:PT1H}",
+            initialDelayString = "${recipe.author-stats.reconcile.interval:PT1H}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        // author is a DBRef {$ref, $id}; "$author.$id" is not a valid field path, so unpack it
+        Document authorId = new Document("$arrayElemAt", List.of(
+                new Document("$map", new Document("input", new Document("$objectToArray", "$author"))
+                        .append("in", "$$this.v")),
+                1));
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("author", new Document("$exists", true))),
+                new Document("$group", new Document("_id", authorId)
+                        .append("recipeCount", new Document("$sum", 1L))
+                        .append("totalFavorites", new Document("$sum",
+                                new Document("$toLong", new Document("$ifNull", List.of("$favoritesCount", 0)))))
+                        .append("totalPrepTime", new Document("$sum",
+                                new Document("$toLong", new Document("$ifNull", List.of("$prepTime", 0)))))
+                        .append("prepTimeCount", new Document("$sum",
+                                new Document("$cond", List.of(new Document("$gt", Arrays.asList("$prepTime", null)), 1L, 0L))))),
+                new Document("$addFields", new Document("reconciledAt", started)),
+                new Document("$merge", new Document("into", "author_stats")
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert")));
+        try {
+            mongoTemplate.getCollection("recipes").aggregate(pipeline).toCollection();
+            long removed = mongoTemplate.remove(Query.query(Criteria.where("reconciledAt").lt(started)),
+                    AuthorStats.class).getDeletedCount();
+            log.info("Reconciled author stats in {} ms ({} stale removed)", System.currentTimeMillis() - started,
+                    removed);
+        } catch (RuntimeException ex) {
+            log.warn("Author stats reconciliation failed: {}", ex.getMessage());
+        }
+    }
+}
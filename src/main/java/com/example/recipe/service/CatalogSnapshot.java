@@ -0,0 +1,508 @@
+package com.example.recipe.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.RecipeSearchResult;
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.model.Recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-only snapshot of the recipe catalog on local disk, used when Mongo is
+ * unreachable.
+ *
+ * Every recipe.snapshot.interval the recipe summaries (id, title, image,
+ * cuisine, prep time, diet tags, ingredient keys and counters, no steps) are
+ * streamed from the read path into a compact binary file. The file is written
+ * next to the snapshot and moved over it, so a reader never sees a partial
+ * file. At startup the last snapshot is memory-mapped: nothing is parsed up
+ * front, so it is usable within milliseconds, before Mongo has answered once.
+ *
+ * RecipeService falls back to it for getRecipeById (summary only) and for
+ * advanced searches when Mongo fails; {@link #search} supports the simple
+ * filters (cuisine, diet, ingredient, max prep time, title words) with a scan.
+ * After Mongo was found unreachable, those reads skip Mongo for
+ * recipe.snapshot.bypass-for and go straight to the snapshot, so degraded
+ * reads do not each wait for server selection to time out.
+ *
+ * Layout, big-endian:
+ * <pre>
+ * header   magic int, version int, writtenAt long, count int, tableOffset int, length long
+ * records  count records, see {@link #writeRecord}
+ * table    count record offsets (int), ordered by recipe id for binary search
+ * </pre>
+ * Strings are an unsigned short byte length followed by UTF-8 bytes.
+ */
+@Component
+@ConditionalOnProperty(name = "recipe.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CatalogSnapshot implements SearchBackend {
+
+    private static final int MAGIC = 0x52435053;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final long NO_PREP_TIME = Long.MIN_VALUE;
+
+    private final MongoRouter mongoRouter;
+    private final Path path;
+    private final MeterRegistry meterRegistry;
+    private final long bypassMillis;
+
+    private final Map<String, Counter> degradedReads = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+    private volatile long mongoDownUntil;
+
+    public CatalogSnapshot(MongoRouter mongoRouter, MeterRegistry meterRegistry,
+            @Value("${recipe.snapshot.path:data/catalog.snapshot}") Path path,
+            @Value("${recipe.snapshot.bypass-for:PT10S}") Duration bypassFor) {
+        this.mongoRouter = mongoRouter;
+        this.path = path;
+        this.meterRegistry = meterRegistry;
+        this.bypassMillis = bypassFor.toMillis();
+        Gauge.builder("recipe.snapshot.recipes", this, s -> s.snapshot == null ? 0 : s.snapshot.count)
+                .description("Recipes in the loaded catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("recipe.snapshot.age", this,
+                s -> s.snapshot == null ? -1 : (System.currentTimeMillis() - s.snapshot.writtenAt) / 1000.0)
+                .description("Seconds since the loaded catalog snapshot was written, -1 when none is loaded")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(path)) {
+            log.info("No catalog snapshot at {} yet", path);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            snapshot = Snapshot.open(path);
+            log.info("Mapped catalog snapshot of {} recipes from {} in {} ms", snapshot.count, path,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", path, ex.getMessage());
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Mongo could not be reached; skip it for recipe.snapshot.bypass-for
+     */
+    void mongoUnreachable() {
+        mongoDownUntil = System.currentTimeMillis() + bypassMillis;
+    }
+
+    /**
+     * True while reads should go straight to the snapshot. Once the window has
+     * passed, the next read tries Mongo again.
+     */
+    boolean bypassesMongo() {
+        return snapshot != null && System.currentTimeMillis() < mongoDownUntil;
+    }
+
+    @Scheduled(fixedDelayString = "${recipe.snapshot.interval:PT15M}",
+            initialDelayString = "${recipe.snapshot.initial-delay:PT1M}")
+    public void refresh() {
+        try {
+            write();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Writing the catalog snapshot failed: {}", ex.getMessage());
+        }
+    }
+
+    void write() throws IOException {
+        long started = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("title", "image", "cuisine", "prepTime", "dietaryPreferences", "ingredientNames",
+                "favoritesCount", "viewsCount", "createdAt");
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "catalog", ".tmp");
+        try {
+            int count;
+            try (Stream<Document> recipes = mongoRouter.reads().stream(query, Document.class, "recipes")) {
+                count = Snapshot.write(temp, recipes.iterator(), started);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshot = Snapshot.open(path);
+            log.info("Wrote catalog snapshot of {} recipes in {} ms", count, System.currentTimeMillis() - started);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Summary of a recipe from the snapshot: no steps, ingredient amounts or
+     * author
+     */
+    public Optional<Recipe> find(String recipeId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        int offset = current.offsetOf(recipeId);
+        return offset < 0 ? Optional.empty() : Optional.of(current.read(offset).toRecipe());
+    }
+
+    /**
+     * Same filters, sort and paging as the Mongo backend, on a scan of the
+     * snapshot; search text matches title words and ingredient keys, without
+     * scoring
+     */
+    @Override
+    public SearchResponse search(SearchRequest searchRequest) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("No catalog snapshot loaded");
+        }
+        String cuisine = normalize(searchRequest.getCuisine());
+        String diet = normalize(searchRequest.getDietaryPreference());
+        String ingredient = normalize(searchRequest.getIngredient());
+        List<String> words = searchRequest.getSearchText() == null ? List.of()
+                : Arrays.stream(searchRequest.getSearchText().toLowerCase(Locale.ROOT).split("\\W+"))
+                        .filter(word -> !word.isEmpty()).toList();
+        Long maxPrepTime = searchRequest.getMaxPrepTime() != null && searchRequest.getMaxPrepTime() > 0
+                ? searchRequest.getMaxPrepTime() : null;
+
+        List<Entry> matches = new ArrayList<>();
+        for (int i = 0; i < current.count; i++) {
+            Entry entry = current.read(current.table(i));
+            if (cuisine != null && (entry.cuisine == null
+                    || !entry.cuisine.toLowerCase(Locale.ROOT).contains(cuisine))) {
+                continue;
+            }
+            if (diet != null && entry.diets.stream().noneMatch(d -> d.equalsIgnoreCase(diet))) {
+                continue;
+            }
+            if (ingredient != null && entry.ingredients.stream().noneMatch(name -> name.contains(ingredient))) {
+                continue;
+            }
+            if (maxPrepTime != null && (entry.prepTime == NO_PREP_TIME || entry.prepTime > maxPrepTime)) {
+                continue;
+            }
+            if (!words.isEmpty() && !matchesAny(entry, words)) {
+                continue;
+            }
+            matches.add(entry);
+        }
+
+        String sortBy = searchRequest.getSortBy() == null ? "" : searchRequest.getSortBy().toLowerCase(Locale.ROOT);
+        Comparator<Entry> order = switch (sortBy) {
+            case "preptime" -> Comparator.comparingLong(e -> e.prepTime);
+            case "favorites" -> Comparator.comparingLong(e -> e.favoritesCount);
+            default -> Comparator.comparingLong(e -> e.createdAt);
+        };
+        matches.sort(order.reversed());
+
+        int limit = searchRequest.getLimit();
+        int from = Math.min(matches.size(), searchRequest.getPage() * limit);
+        List<RecipeSearchResult> results = matches.subList(from, Math.min(matches.size(), from + limit)).stream()
+                .map(Entry::toSearchResult)
+                .toList();
+        int totalPages = (int) Math.ceil((double) matches.size() / limit);
+        return new SearchResponse(results, (long) matches.size(), searchRequest.getPage(), totalPages);
+    }
+
+    /**
+     * Count a read served from the snapshot because Mongo failed
+     */
+    void recordDegraded(String endpoint) {
+        degradedReads.computeIfAbsent(endpoint, name -> Counter.builder("recipe.snapshot.degraded.reads")
+                .tag("endpoint", name)
+                .description("Reads served from the catalog snapshot because Mongo failed")
+                .register(meterRegistry)).increment();
+    }
+
+    private static boolean matchesAny(Entry entry, List<String> words) {
+        String title = entry.title == null ? "" : entry.title.toLowerCase(Locale.ROOT);
+        for (String word : words) {
+            if (title.contains(word) || entry.ingredients.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One mapped snapshot file. Reads use absolute positions only, so a single
+     * buffer is shared by all request threads.
+     */
+    static final class Snapshot {
+
+        private final MappedByteBuffer buffer;
+        private final long writtenAt;
+        private final int count;
+        private final int tableOffset;
+
+        private Snapshot(MappedByteBuffer buffer, long writtenAt, int count, int tableOffset) {
+            this.buffer = buffer;
+            this.writtenAt = writtenAt;
+            this.count = count;
+            this.tableOffset = tableOffset;
+        }
+
+        static Snapshot open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw new IOException("Unexpected snapshot size " + size);
+                }
+                // The mapping stays valid after the channel is closed
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException("Not a version " + VERSION + " catalog snapshot");
+                }
+                int count = buffer.getInt(16);
+                int tableOffset = buffer.getInt(20);
+                if (buffer.getLong(24) != size || tableOffset + 4L * count != size) {
+                    throw new IOException("Truncated catalog snapshot");
+                }
+                return new Snapshot(buffer, buffer.getLong(8), count, tableOffset);
+            }
+        }
+
+        /**
+         * Writes the recipes to the file and returns how many were written
+         */
+        static int write(Path file, Iterator<Document> recipes, long writtenAt) throws IOException {
+            List<String> ids = new ArrayList<>();
+            List<Integer> offsets = new ArrayList<>();
+            int tableOffset;
+            try (OutputStream stream = Files.newOutputStream(file);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                // Header placeholder, filled in below once the table offset is known
+                out.write(new byte[HEADER_SIZE]);
+                while (recipes.hasNext()) {
+                    Document recipe = recipes.next();
+                    int offset = out.size();
+                    if (offset < 0) {
+                        throw new IOException("Catalog snapshot exceeds 2 GB");
+                    }
+                    ids.add(recipe.get("_id").toString());
+                    offsets.add(offset);
+                    writeRecord(out, recipe);
+                }
+                tableOffset = out.size();
+                Integer[] order = new Integer[ids.size()];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparing(ids::get));
+                for (Integer index : order) {
+                    out.writeInt(offsets.get(index));
+                }
+                if (out.size() < 0) {
+                    throw new IOException("Catalog snapshot exceeds 2 GB");
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(writtenAt)
+                        .putInt(ids.size())
+                        .putInt(tableOffset)
+                        .putLong(channel.size());
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            return ids.size();
+        }
+
+        /**
+         * id, title, image, cuisine (strings), prepTime (long), favoritesCount
+         * (int), viewsCount (long), createdAt (long), diet tags (byte count,
+         * strings), ingredient keys (short count, strings)
+         */
+        private static void writeRecord(DataOutputStream out, Document recipe) throws IOException {
+            writeString(out, recipe.get("_id").toString());
+            writeString(out, recipe.getString("title"));
+            writeString(out, recipe.getString("image"));
+            writeString(out, recipe.getString("cuisine"));
+            out.writeLong(recipe.get("prepTime") instanceof Number prepTime ? prepTime.longValue() : NO_PREP_TIME);
+            out.writeInt(recipe.get("favoritesCount") instanceof Number favorites ? favorites.intValue() : 0);
+            out.writeLong(recipe.get("viewsCount") instanceof Number views ? views.longValue() : 0);
+            out.writeLong(recipe.get("createdAt") instanceof Number createdAt ? createdAt.longValue() : 0);
+            List<String> diets = strings(recipe.get("dietaryPreferences"), 255);
+            out.writeByte(diets.size());
+            for (String diet : diets) {
+                writeString(out, diet);
+            }
+            List<String> ingredients = RecipeKeys.keys(strings(recipe.get("ingredientNames"), 65_535));
+            out.writeShort(ingredients.size());
+            for (String ingredient : ingredients) {
+                writeString(out, ingredient);
+            }
+        }
+
+        private static List<String> strings(Object value, int max) {
+            List<String> strings = new ArrayList<>();
+            if (value instanceof List<?> list) {
+                for (Object item : list) {
+                    if (item instanceof String string && strings.size() < max) {
+                        strings.add(string);
+                    }
+                }
+            }
+            return strings;
+        }
+
+        // Null is written as an empty string
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            String text = value == null ? "" : value;
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            while (bytes.length > 65_535) {
+                text = text.substring(0, text.length() / 2);
+                bytes = text.getBytes(StandardCharsets.UTF_8);
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+
+        int table(int index) {
+            return buffer.getInt(tableOffset + 4 * index);
+        }
+
+        /**
+         * Offset of the record with this id, or -1
+         */
+        int offsetOf(String id) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int offset = table(mid);
+                int cmp = readString(offset).compareTo(id);
+                if (cmp == 0) {
+                    return offset;
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return -1;
+        }
+
+        Entry read(int offset) {
+            int position = offset;
+            String id = readString(position);
+            position += 2 + length(position);
+            String title = readString(position);
+            position += 2 + length(position);
+            String image = readString(position);
+            position += 2 + length(position);
+            String cuisine = readString(position);
+            position += 2 + length(position);
+            long prepTime = buffer.getLong(position);
+            int favoritesCount = buffer.getInt(position + 8);
+            long viewsCount = buffer.getLong(position + 12);
+            long createdAt = buffer.getLong(position + 20);
+            position += 28;
+            int dietCount = buffer.get(position) & 0xFF;
+            position += 1;
+            List<String> diets = new ArrayList<>(dietCount);
+            for (int i = 0; i < dietCount; i++) {
+                diets.add(readString(position));
+                position += 2 + length(position);
+            }
+            int ingredientCount = buffer.getShort(position) & 0xFFFF;
+            position += 2;
+            List<String> ingredients = new ArrayList<>(ingredientCount);
+            for (int i = 0; i < ingredientCount; i++) {
+                ingredients.add(readString(position));
+                position += 2 + length(position);
+            }
+            return new Entry(id, empty(title), empty(image), empty(cuisine), prepTime, favoritesCount, viewsCount,
+                    createdAt, diets, ingredients);
+        }
+
+        private int length(int position) {
+            return buffer.getShort(position) & 0xFFFF;
+        }
+
+        private String readString(int position) {
+            byte[] bytes = new byte[length(position)];
+            buffer.get(position + 2, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static String empty(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    record Entry(String id, String title, String image, String cuisine, long prepTime, int favoritesCount,
+            long viewsCount, long createdAt, List<String> diets, List<String> ingredients) {
+
+        Recipe toRecipe() {
+            Recipe recipe = new Recipe();
+            recipe.setId(id);
+            recipe.setTitle(title);
+            recipe.setImage(image);
+            recipe.setCuisine(cuisine);
+            recipe.setPrepTime(prepTime == NO_PREP_TIME ? null : prepTime);
+            recipe.setIngredientNames(new ArrayList<>(ingredients));
+            recipe.setIngredients(new HashMap<>());
+            recipe.setDietaryPreferences(new ArrayList<>(diets));
+            recipe.setFavoritesCount(favoritesCount);
+            recipe.setViewsCount(viewsCount);
+            recipe.setCreatedAt(createdAt == 0 ? null : createdAt);
+            return recipe;
+        }
+
+        RecipeSearchResult toSearchResult() {
+            return new RecipeSearchResult(id, title, image, cuisine, prepTime == NO_PREP_TIME ? null : prepTime,
+                    ingredients, diets, null, favoritesCount, null);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventBus;
+import com.example.recipe.event.RecipeEventSubscriber;
+import com.example.recipe.event.RecipeResyncEvent;
+import com.example.recipe.model.CacheInvalidation;
+import com.example.recipe.model.Recipe;
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster-wide invalidation of in-process recipe state over a capped
+ * collection on the existing Mongo.
+ *
+ * Publishing: local events arrive from the event bus in batches; each batch
+ * becomes one cache_invalidations document holding just the ids of created,
+ * updated and deleted recipes, and the net favorites change per saved or
+ * unsaved recipe.
+ *
+ * Consuming: every node tails the collection with a tailable await cursor, so
+ * a message is seen as soon as it is inserted. Messages from other nodes drop
+ * the ids from {@link RecipeCache}, and the changed recipes are reloaded and
+ * replayed on the local event bus as remote events, which refreshes the
+ * similarity and Lucene indexes. Favorite changes are replayed as remote
+ * SAVED/UNSAVED events, one per net save, so Lucene adjusts its counts.
+ *
+ * The capped collection is created before the first publish or tail; an
+ * insert into a missing collection would create it uncapped, and tailable
+ * cursors fail on that. A node that finds the collection uncapped logs an
+ * error and reports DOWN through {@link #channelProblem()} until it is fixed.
+ *
+ * Falling behind: a reconnecting cursor skips ahead to the last message it
+ * handled. If the capped collection has overwritten that message (the server
+ * also kills a cursor whose position was overwritten), some changes may have
+ * been missed; the node then publishes a {@link RecipeResyncEvent} and
+ * continues from the newest message. Listeners clear caches and rebuild
+ * indexes from Mongo. Message timestamps come from the publisher's clock, so
+ * they only feed the lag metric and never trigger a resync.
+ */
+@Service
+@Slf4j
+public class ClusterInvalidationService implements RecipeEventSubscriber {
+
+    static final String COLLECTION = "cache_invalidations";
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipeCache recipeCache;
+    private final RecipeEventBus eventBus;
+    private final ApplicationEventPublisher applicationEvents;
+    private final boolean enabled;
+    private final long collectionSize;
+    private final Duration maxAwait;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private volatile boolean channelReady;
+    private volatile String channelProblem;
+    private Thread consumer;
+
+    private final Counter published;
+    private final Counter received;
+    private final Counter resyncs;
+    private final Timer lag;
+
+    // The bus is lazy: it is built from all subscribers, including this one
+    public ClusterInvalidationService(MongoTemplate mongoTemplate, RecipeCache recipeCache,
+            @Lazy RecipeEventBus eventBus, ApplicationEventPublisher applicationEvents, MeterRegistry meterRegistry,
+            @Value("${recipe.invalidation.enabled:true}") boolean enabled,
+            @Value("${recipe.invalidation.collection-size:16777216}") long collectionSize,
+            @Value("${recipe.invalidation.max-await:PT1S}") Duration maxAwait) {
+        this.mongoTemplate = mongoTemplate;
+        this.recipeCache = recipeCache;
+        this.eventBus = eventBus;
+        this.applicationEvents = applicationEvents;
+        this.enabled = enabled;
+        this.collectionSize = collectionSize;
+        this.maxAwait = maxAwait;
+
+        this.published = Counter.builder("recipe.invalidation.messages").tag("direction", "published")
+                .register(meterRegistry);
+        this.received = Counter.builder("recipe.invalidation.messages").tag("direction", "received")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("recipe.invalidation.resyncs")
+                .description("Full resyncs after missing invalidation messages")
+                .register(meterRegistry);
+        this.lag = Timer.builder("recipe.invalidation.lag")
+                .description("Delay between publishing and consuming an invalidation, including clock skew")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String subscriberName() {
+        return "cluster-invalidation";
+    }
+
+    @Override
+    public void onEvents(List<RecipeEvent> events) {
+        if (!enabled) {
+            return;
+        }
+        Set<String> upserted = new LinkedHashSet<>();
+        Set<String> deleted = new LinkedHashSet<>();
+        Map<String, Integer> favorites = new LinkedHashMap<>();
+        for (RecipeEvent event : events) {
+            if (event.remote()) {
+                continue;
+            }
+            switch (event.type()) {
+                case CREATED, UPDATED -> upserted.add(event.recipeId());
+                case DELETED -> {
+                    upserted.remove(event.recipeId());
+                    deleted.add(event.recipeId());
+                    favorites.remove(event.recipeId());
+                }
+                case SAVED -> favorites.merge(event.recipeId(), 1, Integer::sum);
+                case UNSAVED -> favorites.merge(event.recipeId(), -1, Integer::sum);
+            }
+        }
+        favorites.values().removeIf(delta -> delta == 0);
+        List<String> upsertedIds = new ArrayList<>(upserted);
+        List<String> deletedIds = new ArrayList<>(deleted);
+        List<String> favoriteIds = new ArrayList<>(favorites.keySet());
+        int total = Math.max(Math.max(upsertedIds.size(), deletedIds.size()), favoriteIds.size());
+        for (int from = 0; from < total; from += MAX_IDS_PER_MESSAGE) {
+            Map<String, Integer> favoriteSlice = new LinkedHashMap<>();
+            for (String recipeId : slice(favoriteIds, from)) {
+                favoriteSlice.put(recipeId, favorites.get(recipeId));
+            }
+            CacheInvalidation message = new CacheInvalidation(null, nodeId, slice(upsertedIds, from),
+                    slice(deletedIds, from), favoriteSlice, System.currentTimeMillis());
+            try {
+                ensureCollection();
+                mongoTemplate.insert(message);
+                published.increment();
+            } catch (RuntimeException ex) {
+                // Other nodes fall back to the cache TTL for these recipes
+                log.warn("Publishing cache invalidation failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static List<String> slice(List<String> ids, int from) {
+        return from >= ids.size() ? List.of() : ids.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, ids.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startConsumer() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consume, "cluster-invalidation");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+        }
+    }
+
+    private void consume() {
+        ObjectId position = null;
+        long backoff = 500;
+        while (running) {
+            try {
+                MongoCollection<Document> collection = ensureCollection();
+                if (position == null) {
+                    position = newest(collection);
+                }
+                position = tail(collection, position);
+                backoff = 500;
+            } catch (FellBehindException ex) {
+                resync(ex.getMessage());
+                position = null;
+            } catch (ChannelMisconfiguredException ex) {
+                log.error(ex.getMessage());
+                if (!sleep(30_000)) {
+                    return;
+                }
+            } catch (MongoException | DataAccessException ex) {
+                log.warn("Cache invalidation channel failed, retrying in {} ms: {}", backoff, ex.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    /**
+     * Tail the collection in insertion ($natural) order until the cursor dies;
+     * returns the last message handled. Messages up to and including
+     * {@code position} were handled before and are skipped. Positions are
+     * matched by id rather than compared, since ObjectIds from different nodes
+     * are not ordered by insertion.
+     */
+    private ObjectId tail(MongoCollection<Document> collection, ObjectId position) {
+        try (MongoCursor<Document> cursor = collection.find()
+                .cursorType(CursorType.TailableAwait)
+                .maxAwaitTime(maxAwait.toMillis(), TimeUnit.MILLISECONDS)
+                .iterator()) {
+            boolean caughtUp = false;
+            while (running) {
+                Document message = cursor.tryNext();
+                if (message == null) {
+                    if (cursor.getServerCursor() == null) {
+                        break;
+                    }
+                    if (!caughtUp) {
+                        throw new FellBehindException("last handled invalidation was overwritten");
+                    }
+                    continue;
+                }
+                ObjectId id = message.getObjectId("_id");
+                if (!caughtUp) {
+                    caughtUp = id.equals(position);
+                    continue;
+                }
+                handle(message);
+                position = id;
+            }
+        }
+        return position;
+    }
+
+    private void handle(Document message) {
+        received.increment();
+        long age = System.currentTimeMillis() - message.getLong("createdAt");
+        lag.record(Math.max(0, age), TimeUnit.MILLISECONDS);
+        if (nodeId.equals(message.getString("origin"))) {
+            return;
+        }
+
+        List<String> upserted = message.getList("upserted", String.class, List.of());
+        List<String> deleted = message.getList("deleted", String.class, List.of());
+        Document favorites = message.get("favorites", new Document());
+        List<String> changed = new ArrayList<>(upserted);
+        changed.addAll(deleted);
+        changed.addAll(favorites.keySet());
+        recipeCache.invalidateAll(changed);
+
+        Set<String> missing = new HashSet<>(upserted);
+        if (!upserted.isEmpty()) {
+            for (Recipe recipe : mongoTemplate.find(Query.query(Criteria.where("_id").in(upserted)), Recipe.class)) {
+                missing.remove(recipe.getId());
+                eventBus.publish(RecipeEvent.remote(RecipeEvent.Type.UPDATED, recipe.getId(), recipe));
+            }
+        }
+        // Recipes deleted since the update was published are removed as well
+        missing.addAll(deleted);
+        for (String recipeId : missing) {
+            eventBus.publish(RecipeEvent.remote(RecipeEvent.Type.DELETED, recipeId, null));
+        }
+
+        for (Map.Entry<String, Object> favorite : favorites.entrySet()) {
+            int delta = ((Number) favorite.getValue()).intValue();
+            RecipeEvent.Type type = delta > 0 ? RecipeEvent.Type.SAVED : RecipeEvent.Type.UNSAVED;
+            for (int i = 0; i < Math.abs(delta); i++) {
+                eventBus.publish(RecipeEvent.remote(type, favorite.getKey(), null));
+            }
+        }
+    }
+
+    private void resync(String reason) {
+        resyncs.increment();
+        log.warn("Cache invalidations missed ({}), resyncing from Mongo", reason);
+        applicationEvents.publishEvent(new RecipeResyncEvent(reason));
+    }
+
+    /**
+     * Null while the channel works, otherwise why invalidations cannot flow
+     */
+    public String channelProblem() {
+        return channelProblem;
+    }
+
+    private synchronized MongoCollection<Document> ensureCollection() {
+        if (!channelReady) {
+            if (!mongoTemplate.collectionExists(COLLECTION)) {
+                try {
+                    mongoTemplate.createCollection(COLLECTION,
+                            CollectionOptions.empty().capped().size(collectionSize));
+                } catch (DataAccessException ex) {
+                    // Fine if another node created it concurrently
+                    if (!mongoTemplate.collectionExists(COLLECTION)) {
+                        throw ex;
+                    }
+                }
+            }
+            if (!isCapped()) {
+                channelProblem = COLLECTION + " is not a capped collection, so cache invalidations cannot be "
+                        + "tailed; drop it or run convertToCapped on it";
+                throw new ChannelMisconfiguredException(channelProblem);
+            }
+            channelProblem = null;
+            channelReady = true;
+        }
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    private boolean isCapped() {
+        Document info = mongoTemplate.getDb().listCollections().filter(Filters.eq("name", COLLECTION)).first();
+        Document options = info == null ? null : info.get("options", Document.class);
+        return options != null && Boolean.TRUE.equals(options.getBoolean("capped"));
+    }
+
+    private ObjectId newest(MongoCollection<Document> collection) {
+        Document newest = collection.find().sort(Sorts.descending("$natural")).first();
+        if (newest == null) {
+            mongoTemplate.insert(new CacheInvalidation(null, nodeId, List.of(), List.of(), Map.of(),
+                    System.currentTimeMillis()));
+            newest = collection.find().sort(Sorts.descending("$natural")).first();
+        }
+        return newest.getObjectId("_id");
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class FellBehindException extends RuntimeException {
+        FellBehindException(String message) {
+            super(message);
+        }
+    }
+
+    private static class ChannelMisconfiguredException extends RuntimeException {
+        ChannelMisconfiguredException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.FeedPage;
+import com.example.recipe.dto.TrendingRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventSubscriber;
+import com.example.recipe.model.FeedProfile;
+import com.example.recipe.model.Recipe;
+import com.example.recipe.model.UserFeed;
+import com.mongodb.DBRef;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Personalized home feed, precomputed on write.
+ *
+ * Profiles: when a user saves or unsaves a recipe, their feed_profiles entry
+ * is rebuilt from the saved recipes: the most saved cuisines and dietary
+ * preferences, and the authors they saved at least twice.
+ *
+ * Fan-out: a created recipe is pushed to the front of the user_feeds list of
+ * every user whose profile matches it, found through the profile indexes in
+ * _id batches and written with one updateMany per batch and reason. Lists are
+ * cut to recipe.feed.max-size. Only users that already have a feed receive
+ * pushes; a feed is created, seeded with recent matching recipes, the first
+ * time its user asks for it.
+ *
+ * Reads: one page is one _id lookup with a $slice projection; the recipes are
+ * then taken from the recipe cache or fetched in one batch. Users without a
+ * profile get a shared, periodically refreshed popular feed instead; their
+ * feed document is created empty on the first read, so later reads stay one
+ * lookup. When a profile becomes empty the feed is emptied as well, and when
+ * an empty feed's user gets a profile the feed is dropped so that the next
+ * read seeds it.
+ */
+@Service
+@Slf4j
+public class FeedService implements RecipeEventSubscriber {
+
+    private static final int MAX_CUISINES = 3;
+    private static final int MAX_DIETARY = 3;
+    private static final int MAX_AUTHORS = 10;
+    private static final int MIN_AUTHOR_SAVES = 2;
+    private static final int MAX_SAVED_CONSIDERED = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoRouter mongoRouter;
+    private final RecipeService recipeService;
+    private final TrendingService trendingService;
+    private final int maxSize;
+    private final int fanoutBatchSize;
+    private final Duration seedWindow;
+    private final int popularSize;
+    private final Duration popularRefresh;
+
+    private volatile List<String> popular = List.of();
+    private volatile long popularLoadedAt;
+
+    private final Counter personalizedReads;
+    private final Counter popularReads;
+    private final Counter deliveries;
+    private final Timer fanoutTimer;
+
+    // RecipeService is lazy: it publishes to the event bus, which is built from all subscribers, including this one
+    public FeedService(MongoTemplate mongoTemplate, MongoRouter mongoRouter, @Lazy RecipeService recipeService,
+            TrendingService trendingService, MeterRegistry meterRegistry,
+            @Value("${recipe.feed.max-size:500}") int maxSize,
+            @Value("${recipe.feed.fanout.batch-size:1000}") int fanoutBatchSize,
+            @Value("${recipe.feed.seed-window:P30D}") Duration seedWindow,
+            @Value("${recipe.feed.popular-size:100}") int popularSize,
+            @Value("${recipe.feed.popular-refresh:PT1M}") Duration popularRefresh) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoRouter = mongoRouter;
+        this.recipeService = recipeService;
+        this.trendingService = trendingService;
+        this.maxSize = maxSize;
+        this.fanoutBatchSize = fanoutBatchSize;
+        this.seedWindow = seedWindow;
+        this.popularSize = popularSize;
+        this.popularRefresh = popularRefresh;
+
+        this.personalizedReads = Counter.builder("recipe.feed.reads").tag("source", "personalized")
+                .register(meterRegistry);
+        this.popularReads = Counter.builder("recipe.feed.reads").tag("source", "popular")
+                .register(meterRegistry);
+        this.deliveries = Counter.builder("recipe.feed.fanout.deliveries")
+                .description("Feed entries written by fan-out")
+                .register(meterRegistry);
+        this.fanoutTimer = Timer.builder("recipe.feed.fanout")
+                .description("Fan-out of one created recipe to all matching feeds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String subscriberName() {
+        return "feed";
+    }
+
+    @Override
+    public void onEvents(List<RecipeEvent> events) {
+        Set<String> changedProfiles = new LinkedHashSet<>();
+        for (RecipeEvent event : events) {
+            // Remote events were fanned out by the node that handled the change
+            if (event.remote()) {
+                continue;
+            }
+            switch (event.type()) {
+                case CREATED -> {
+                    try {
+                        fanoutTimer.record(() -> fanOut(event.recipe(), event.userId()));
+                    } catch (RuntimeException ex) {
+                        log.warn("Feed fan-out of recipe {} failed: {}", event.recipeId(), ex.getMessage());
+                    }
+                }
+                case SAVED, UNSAVED -> changedProfiles.add(event.userId());
+                default -> {
+                }
+            }
+        }
+        for (String userId : changedProfiles) {
+            try {
+                FeedProfile profile = rebuildProfile(userId);
+                if (profile != null) {
+                    profileChanged(userId, profile);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Rebuilding the feed profile of user {} failed: {}", userId, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One page of the user's feed, or of the popular feed for a user without
+     * a profile
+     */
+    public FeedPage getFeed(String userId, int page, int size) {
+        UserFeed feed = loadPage(userId, page, size);
+        if (feed == null && seed(userId)) {
+            feed = loadPage(userId, page, size);
+        }
+        if (feed == null || (page == 0 && feed.getEntries().isEmpty())) {
+            popularReads.increment();
+            List<String> ids = popularIds();
+            int from = Math.min(page * size, ids.size());
+            int to = Math.min(from + size, ids.size());
+            return new FeedPage(hydrate(ids.subList(from, to)), false, page, to < ids.size());
+        }
+
+        personalizedReads.increment();
+        List<UserFeed.Entry> entries = feed.getEntries();
+        List<String> ids = entries.stream().limit(size).map(UserFeed.Entry::getRecipeId).toList();
+        return new FeedPage(hydrate(ids), true, page, entries.size() > size);
+    }
+
+    // One more entry than the page size tells whether there is a next page
+    private UserFeed loadPage(String userId, int page, int size) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().slice("entries", page * size, size + 1);
+        return mongoTemplate.findOne(query, UserFeed.class);
+    }
+
+    private List<Recipe> hydrate(List<String> ids) {
+        // Recipes deleted since they were fanned out are missing and skipped
+        return ids.isEmpty() ? List.of() : recipeService.getRecipesByIds(ids).getRecipes();
+    }
+
+    /**
+     * Create the user's feed from recent recipes matching their profile.
+     * Returns false for a cold user without saved recipes; they get an empty
+     * feed, so their next reads go to the popular feed after one lookup.
+     */
+    private boolean seed(String userId) {
+        FeedProfile profile = mongoTemplate.findById(userId, FeedProfile.class);
+        if (profile == null) {
+            profile = rebuildProfile(userId, false);
+        }
+        if (profile == null || profile.isEmpty()) {
+            UserFeed empty = new UserFeed();
+            empty.setId(userId);
+            empty.setSeededAt(System.currentTimeMillis());
+            empty.setUpdatedAt(empty.getSeededAt());
+            try {
+                mongoTemplate.insert(empty);
+            } catch (DuplicateKeyException ex) {
+                // Seeded by a concurrent request
+            }
+            return false;
+        }
+
+        List<Criteria> matches = new ArrayList<>();
+        if (!profile.getCuisines().isEmpty()) {
+            matches.add(Criteria.where("cuisine").in(profile.getCuisines()));
+        }
+        if (!profile.getDietaryPreferences().isEmpty()) {
+            matches.add(Criteria.where("dietaryPreferences").in(profile.getDietaryPreferences()));
+        }
+        if (!profile.getAuthors().isEmpty()) {
+            matches.add(Criteria.where("author.$id").in(profile.getAuthors().stream().map(FeedService::objectId)
+                    .toList()));
+        }
+        long now = System.currentTimeMillis();
+        Query query = Query.query(new Criteria().andOperator(
+                new Criteria().orOperator(matches),
+                Criteria.where("author.$id").ne(objectId(userId)),
+                Criteria.where("createdAt").gte(now - seedWindow.toMillis())))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(maxSize);
+        query.fields().include("cuisine", "dietaryPreferences", "author", "createdAt");
+
+        UserFeed feed = new UserFeed();
+        feed.setId(userId);
+        for (Document recipe : mongoRouter.reads().find(query, Document.class, "recipes")) {
+            String authorId = recipe.get("author") instanceof DBRef author ? author.getId().toString() : null;
+            String reason = reason(profile, recipe.getString("cuisine"), authorId);
+            Number createdAt = recipe.get("createdAt", Number.class);
+            feed.getEntries().add(new UserFeed.Entry(recipe.get("_id").toString(), reason,
+                    createdAt != null ? createdAt.longValue() : now));
+        }
+        feed.setSeededAt(now);
+        feed.setUpdatedAt(now);
+        try {
+            mongoTemplate.insert(feed);
+        } catch (DuplicateKeyException ex) {
+            // Seeded by a concurrent request
+        }
+        return true;
+    }
+
+    /**
+     * Keep the feed in line with a rebuilt profile: an empty profile empties
+     * the feed, a profile for a user with an empty feed drops that feed so
+     * that the next read seeds it from recent recipes
+     */
+    private void profileChanged(String userId, FeedProfile profile) {
+        if (profile.isEmpty()) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(userId)),
+                    new Update().set("entries", List.of()).set("updatedAt", System.currentTimeMillis()),
+                    UserFeed.class);
+        } else {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(userId).and("entries").size(0)),
+                    UserFeed.class);
+        }
+    }
+
+    /**
+     * Push a new recipe to the feeds of all users whose profile matches it
+     */
+    void fanOut(Recipe recipe, String authorId) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        List<Criteria> matches = new ArrayList<>();
+        if (recipe.getCuisine() != null) {
+            matches.add(Criteria.where("cuisines").is(recipe.getCuisine()));
+        }
+        if (recipe.getDietaryPreferences() != null && !recipe.getDietaryPreferences().isEmpty()) {
+            matches.add(Criteria.where("dietaryPreferences").in(recipe.getDietaryPreferences()));
+        }
+        if (authorId != null) {
+            matches.add(Criteria.where("authors").is(authorId));
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String lastUserId = null;
+        while (true) {
+            List<Criteria> criteria = new ArrayList<>();
+            criteria.add(new Criteria().orOperator(matches));
+            if (authorId != null) {
+                criteria.add(Criteria.where("_id").ne(authorId));
+            }
+            if (lastUserId != null) {
+                criteria.add(Criteria.where("_id").gt(lastUserId));
+            }
+            Query query = Query.query(new Criteria().andOperator(criteria))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(fanoutBatchSize);
+            query.fields().include("cuisines", "dietaryPreferences", "authors");
+            List<FeedProfile> profiles = mongoTemplate.find(query, FeedProfile.class);
+            if (profiles.isEmpty()) {
+                break;
+            }
+
+            Map<String, List<String>> usersByReason = new HashMap<>();
+            for (FeedProfile profile : profiles) {
+                String reason = reason(profile, recipe.getCuisine(), authorId);
+                usersByReason.computeIfAbsent(reason, r -> new ArrayList<>()).add(profile.getId());
+            }
+            for (Map.Entry<String, List<String>> group : usersByReason.entrySet()) {
+                Update update = new Update().push("entries")
+                        .atPosition(Update.Position.FIRST)
+                        .slice(maxSize)
+                        .each(new UserFeed.Entry(recipe.getId(), group.getKey(), now));
+                update.set("updatedAt", now);
+                long modified = mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(group.getValue())),
+                        update, UserFeed.class).getModifiedCount();
+                deliveries.increment(modified);
+            }
+
+            lastUserId = profiles.get(profiles.size() - 1).getId();
+            if (profiles.size() < fanoutBatchSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Recompute the user's profile from their saved recipes; an empty
+     * profile is removed. Returns null for an unknown user.
+     */
+    FeedProfile rebuildProfile(String userId) {
+        return rebuildProfile(userId, true);
+    }
+
+    // stored: whether a profile may exist that an empty one has to remove
+    private FeedProfile rebuildProfile(String userId, boolean stored) {
+        Query userQuery = Query.query(Criteria.where("_id").is(objectId(userId)));
+        userQuery.fields().include("recipesSaved");
+        Document user = mongoTemplate.findOne(userQuery, Document.class, "users");
+        if (user == null) {
+            return null;
+        }
+        List<Object> savedIds = new ArrayList<>();
+        for (Object ref : user.getList("recipesSaved", Object.class, List.of())) {
+            if (ref instanceof DBRef saved && savedIds.size() < MAX_SAVED_CONSIDERED) {
+                savedIds.add(saved.getId());
+            }
+        }
+
+        Map<String, Integer> cuisines = new HashMap<>();
+        Map<String, Integer> dietary = new HashMap<>();
+        Map<String, Integer> authors = new HashMap<>();
+        if (!savedIds.isEmpty()) {
+            Query recipeQuery = Query.query(Criteria.where("_id").in(savedIds));
+            recipeQuery.fields().include("cuisine", "dietaryPreferences", "author");
+            for (Document recipe : mongoTemplate.find(recipeQuery, Document.class, "recipes")) {
+                String cuisine = recipe.getString("cuisine");
+                if (cuisine != null && !cuisine.isBlank()) {
+                    cuisines.merge(cuisine, 1, Integer::sum);
+                }
+                for (String preference : recipe.getList("dietaryPreferences", String.class, List.of())) {
+                    dietary.merge(preference, 1, Integer::sum);
+                }
+                if (recipe.get("author") instanceof DBRef author && !userId.equals(author.getId().toString())) {
+                    authors.merge(author.getId().toString(), 1, Integer::sum);
+                }
+            }
+        }
+
+        FeedProfile profile = new FeedProfile(userId);
+        profile.setCuisines(top(cuisines, MAX_CUISINES, 1));
+        profile.setDietaryPreferences(top(dietary, MAX_DIETARY, 1));
+        profile.setAuthors(top(authors, MAX_AUTHORS, MIN_AUTHOR_SAVES));
+        profile.setSavedCount(savedIds.size());
+        profile.setUpdatedAt(System.currentTimeMillis());
+        if (profile.isEmpty()) {
+            if (!stored) {
+                return profile;
+            }
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(userId)), FeedProfile.class);
+        } else {
+            mongoTemplate.save(profile);
+        }
+        return profile;
+    }
+
+    private static List<String> top(Map<String, Integer> counts, int limit, int minCount) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() >= minCount)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // The strongest match wins: a favourite author over a cuisine over a diet
+    private static String reason(FeedProfile profile, String cuisine, String authorId) {
+        if (authorId != null && profile.getAuthors().contains(authorId)) {
+            return "author";
+        }
+        if (cuisine != null && profile.getCuisines().contains(cuisine)) {
+            return "cuisine";
+        }
+        return "dietary";
+    }
+
+    /**
+     * Trending recipes topped up with the most saved ones, shared by all cold
+     * users and refreshed every recipe.feed.popular-refresh
+     */
+    private List<String> popularIds() {
+        if (System.currentTimeMillis() - popularLoadedAt < popularRefresh.toMillis()) {
+            return popular;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        try {
+            for (TrendingRecipe trending : trendingService.getTrending(null, popularSize)) {
+                ids.add(trending.getId());
+            }
+            if (ids.size() < popularSize) {
+                Query query = new Query().with(Sort.by(Sort.Direction.DESC, "favoritesCount")).limit(popularSize);
+                query.fields().include("_id");
+                for (Document recipe : mongoRouter.reads().find(query, Document.class, "recipes")) {
+                    if (ids.size() < popularSize) {
+                        ids.add(recipe.get("_id").toString());
+                    }
+                }
+            }
+            popular = List.copyOf(ids);
+            popularLoadedAt = System.currentTimeMillis();
+        } catch (RuntimeException ex) {
+            // Serve the previous list rather than fail the feed
+            log.warn("Refreshing the popular feed failed: {}", ex.getMessage());
+        }
+        return popular;
+    }
+
+    private static Object objectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
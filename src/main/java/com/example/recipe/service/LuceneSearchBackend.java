@@ -0,0 +1,578 @@
+package com.example.recipe.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.dto.RecipeSearchResult;
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventSubscriber;
+import com.example.recipe.event.RecipeResyncEvent;
+import com.example.recipe.model.Recipe;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCursor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search backend on an embedded Lucene index kept on local disk.
+ *
+ * Compared to Mongo $text it scores with BM25, tolerates typos (fuzzy terms),
+ * matches prefixes of the last search word and applies cuisine, diet, ingredient
+ * and prepTime as non-scoring filters.
+ *
+ * The index is (re)built from Mongo in parallel after startup: one thread reads
+ * the recipes, a pool resolves author names and indexes each batch. Until the
+ * first build has finished {@link #isReady()} is false and searches stay on Mongo,
+ * unless an index from a previous run is already on disk. Afterwards recipe
+ * events keep it near-real-time through an NRT searcher reopened at most
+ * {@code recipe.search.lucene.max-staleness} after a change. A cluster resync
+ * re-runs the bootstrap.
+ *
+ * Enabled with recipe.search.backend=lucene.
+ */
+@Component
+@ConditionalOnProperty(name = "recipe.search.backend", havingValue = "lucene")
+@Slf4j
+public class LuceneSearchBackend implements SearchBackend, RecipeEventSubscriber {
+
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String INGREDIENTS = "ingredients";
+    private static final String INGREDIENT_NAME = "ingredientName";
+    private static final String CUISINE = "cuisine";
+    private static final String CUISINE_KEY = "cuisineKey";
+    private static final String DIET = "diet";
+    private static final String DIET_KEY = "dietKey";
+    private static final String PREP_TIME = "prepTime";
+    private static final String FAVORITES = "favoritesCount";
+    private static final String CREATED_AT = "createdAt";
+    private static final String IMAGE = "image";
+    private static final String AUTHOR = "authorName";
+    private static final String GENERATION = "generation";
+
+    private static final int BOOTSTRAP_BATCH = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Path indexPath;
+    private final int bootstrapThreads;
+    private final double maxStalenessSeconds;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private volatile boolean ready;
+    private volatile long generation = System.currentTimeMillis();
+    // Ids of recipes changed by events while a bootstrap runs, null otherwise
+    private volatile Set<String> touchedDuringBootstrap;
+
+    public LuceneSearchBackend(MongoTemplate mongoTemplate,
+            @Value("${recipe.search.lucene.path:data/lucene-index}") Path indexPath,
+            @Value("${recipe.search.lucene.bootstrap-threads:4}") int bootstrapThreads,
+            @Value("${recipe.search.lucene.max-staleness:1.0}") double maxStalenessSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexPath = indexPath;
+        this.bootstrapThreads = bootstrapThreads;
+        this.maxStalenessSeconds = maxStalenessSeconds;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = FSDirectory.open(indexPath);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+        reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, maxStalenessSeconds, 0.05);
+        reopenThread.setName("lucene-nrt-reopen");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        // An index left by a previous run is good enough to serve while it is refreshed
+        ready = writer.getDocStats().numDocs > 0;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener({ ApplicationReadyEvent.class, RecipeResyncEvent.class })
+    public void bootstrapOnStartup() {
+        Thread thread = new Thread(this::bootstrap, "lucene-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Re-index every recipe, then drop documents of recipes that no longer exist.
+     *
+     * Events keep arriving while the recipes are streamed, so a streamed row
+     * may be older than what an event already wrote. Recipes touched by events
+     * during the bootstrap are therefore skipped by the bulk pass and
+     * re-indexed from Mongo afterwards (or deleted if gone), until no event
+     * touched anything during the last pass.
+     */
+    synchronized void bootstrap() {
+        long started = System.currentTimeMillis();
+        long currentGeneration = System.currentTimeMillis();
+        generation = currentGeneration;
+        Set<String> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringBootstrap = touched;
+        ExecutorService pool = Executors.newFixedThreadPool(bootstrapThreads);
+        List<Future<?>> pending = new ArrayList<>();
+        long count = 0;
+
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection("recipes").find()
+                .projection(new Document("steps", 0).append("ingredients", 0))
+                .batchSize(BOOTSTRAP_BATCH)
+                .iterator()) {
+            List<Document> batch = new ArrayList<>(BOOTSTRAP_BATCH);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == BOOTSTRAP_BATCH) {
+                    List<Document> work = batch;
+                    pending.add(pool.submit(() -> indexBatch(untouched(work, touched))));
+                    batch = new ArrayList<>(BOOTSTRAP_BATCH);
+                }
+                count++;
+            }
+            if (!batch.isEmpty()) {
+                List<Document> work = batch;
+                pending.add(pool.submit(() -> indexBatch(untouched(work, touched))));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            reindexTouched(touched);
+
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, currentGeneration - 1));
+            writer.commit();
+            searcherManager.maybeRefresh();
+            ready = true;
+            log.info("Lucene index bootstrapped with {} recipes in {} ms", count,
+                    System.currentTimeMillis() - started);
+        } catch (Exception ex) {
+            log.warn("Lucene bootstrap failed, searches stay on Mongo: {}", ex.getMessage());
+        } finally {
+            touchedDuringBootstrap = null;
+            pool.shutdownNow();
+        }
+    }
+
+    private static List<Document> untouched(List<Document> recipes, Set<String> touched) {
+        return recipes.stream().filter(recipe -> !touched.contains(recipe.get("_id").toString())).toList();
+    }
+
+    /**
+     * Re-read the touched recipes from Mongo; repeated while events touch
+     * more recipes during a pass
+     */
+    private void reindexTouched(Set<String> touched) throws IOException {
+        while (!touched.isEmpty()) {
+            List<String> ids = new ArrayList<>(touched);
+            touched.removeAll(ids);
+            Set<String> gone = new HashSet<>(ids);
+            for (int from = 0; from < ids.size(); from += BOOTSTRAP_BATCH) {
+                List<Object> chunk = ids.subList(from, Math.min(from + BOOTSTRAP_BATCH, ids.size())).stream()
+                        .<Object>map(id -> ObjectId.isValid(id) ? new ObjectId(id) : id)
+                        .toList();
+                List<Document> recipes = new ArrayList<>();
+                mongoTemplate.getCollection("recipes").find(new Document("_id", new Document("$in", chunk)))
+                        .projection(new Document("steps", 0).append("ingredients", 0))
+                        .into(recipes);
+                recipes.forEach(recipe -> gone.remove(recipe.get("_id").toString()));
+                indexBatch(recipes);
+            }
+            for (String id : gone) {
+                writer.deleteDocuments(new Term(ID, id));
+            }
+        }
+    }
+
+    private void indexBatch(List<Document> recipes) {
+        // Resolve all author names of the batch with one query instead of one DBRef fetch per recipe
+        List<Object> authorIds = new ArrayList<>();
+        for (Document recipe : recipes) {
+            if (recipe.get("author") instanceof DBRef author) {
+                authorIds.add(author.getId());
+            }
+        }
+        Map<Object, String> authorNames = new HashMap<>();
+        if (!authorIds.isEmpty()) {
+            org.springframework.data.mongodb.core.query.Query query = org.springframework.data.mongodb.core.query.Query
+                    .query(Criteria.where("_id").in(authorIds));
+            query.fields().include("username");
+            for (Document user : mongoTemplate.find(query, Document.class, "users")) {
+                authorNames.put(user.get("_id"), user.getString("username"));
+            }
+        }
+
+        try {
+            for (Document recipe : recipes) {
+                Object authorId = recipe.get("author") instanceof DBRef author ? author.getId() : null;
+                IndexedRecipe indexed = new IndexedRecipe(
+                        recipe.get("_id").toString(),
+                        recipe.getString("title"),
+                        recipe.getString("image"),
+                        recipe.getString("cuisine"),
+                        longValue(recipe.get("prepTime")),
+                        stringList(recipe.get("ingredientNames")),
+                        stringList(recipe.get("dietaryPreferences")),
+                        authorNames.get(authorId),
+                        longValue(recipe.get("favoritesCount")),
+                        longValue(recipe.get("createdAt")));
+                writer.updateDocument(new Term(ID, indexed.id()), toDocument(indexed));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipe.search.lucene.commit-interval:PT1M}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    @Override
+    public String subscriberName() {
+        return "lucene";
+    }
+
+    @Override
+    public void onEvents(List<RecipeEvent> events) {
+        Set<String> touched = touchedDuringBootstrap;
+        Map<String, Integer> favoriteDeltas = new LinkedHashMap<>();
+        try {
+            for (RecipeEvent event : events) {
+                if (touched != null) {
+                    touched.add(event.recipeId());
+                }
+                switch (event.type()) {
+                    case CREATED, UPDATED -> {
+                        // The rewritten document carries the absolute count, earlier deltas are in it
+                        favoriteDeltas.remove(event.recipeId());
+                        writer.updateDocument(new Term(ID, event.recipeId()),
+                                toDocument(IndexedRecipe.of(event.recipe())));
+                    }
+                    case DELETED -> {
+                        favoriteDeltas.remove(event.recipeId());
+                        writer.deleteDocuments(new Term(ID, event.recipeId()));
+                    }
+                    case SAVED -> favoriteDeltas.merge(event.recipeId(), 1, Integer::sum);
+                    case UNSAVED -> favoriteDeltas.merge(event.recipeId(), -1, Integer::sum);
+                }
+            }
+            if (!favoriteDeltas.isEmpty()) {
+                adjustFavorites(favoriteDeltas);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Favorites counts live in updatable doc values. The searcher is refreshed
+     * first, so it sees every document and count written so far (also earlier
+     * in this batch); only this subscriber thread adjusts counts, so the
+     * read-modify-write is not raced.
+     */
+    private void adjustFavorites(Map<String, Integer> deltas) throws IOException {
+        searcherManager.maybeRefreshBlocking();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+                TopDocs hits = searcher.search(new TermQuery(new Term(ID, delta.getKey())), 1);
+                if (hits.scoreDocs.length == 0) {
+                    // Not indexed yet; the bootstrap indexes it with the count from Mongo
+                    continue;
+                }
+                long current = docValue(searcher, hits.scoreDocs[0].doc, FAVORITES);
+                writer.updateNumericDocValue(new Term(ID, delta.getKey()), FAVORITES,
+                        Math.max(0, current + delta.getValue()));
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Override
+    public SearchResponse search(SearchRequest searchRequest) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        List<String> terms = searchRequest.getSearchText() == null ? List.of() : analyze(searchRequest.getSearchText());
+        boolean hasText = !terms.isEmpty();
+
+        // TEXT: BM25 on title and ingredients, fuzzy for typos, prefix for the word being typed
+        if (hasText) {
+            BooleanQuery.Builder text = new BooleanQuery.Builder();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                text.add(new BoostQuery(new TermQuery(new Term(TITLE, term)), 2.0f), BooleanClause.Occur.SHOULD);
+                text.add(new TermQuery(new Term(INGREDIENTS, term)), BooleanClause.Occur.SHOULD);
+                if (term.length() >= 4) {
+                    text.add(new BoostQuery(new FuzzyQuery(new Term(TITLE, term), term.length() >= 8 ? 2 : 1), 0.5f),
+                            BooleanClause.Occur.SHOULD);
+                }
+                if (i == terms.size() - 1) {
+                    text.add(new BoostQuery(new PrefixQuery(new Term(TITLE, term)), 0.5f), BooleanClause.Occur.SHOULD);
+                }
+            }
+            builder.add(text.build(), BooleanClause.Occur.MUST);
+        } else {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+
+        // FILTERS: do not influence the score
+        if (searchRequest.getIngredient() != null && !searchRequest.getIngredient().isBlank()) {
+            for (String term : analyze(searchRequest.getIngredient())) {
+                builder.add(new TermQuery(new Term(INGREDIENTS, term)), BooleanClause.Occur.FILTER);
+            }
+        }
+        if (searchRequest.getCuisine() != null && !searchRequest.getCuisine().isBlank()) {
+            builder.add(new TermQuery(new Term(CUISINE_KEY, key(searchRequest.getCuisine()))),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (searchRequest.getDietaryPreference() != null && !searchRequest.getDietaryPreference().isBlank()) {
+            builder.add(new TermQuery(new Term(DIET_KEY, key(searchRequest.getDietaryPreference()))),
+                    BooleanClause.Occur.FILTER);
+        }
+        if (searchRequest.getMaxPrepTime() != null && searchRequest.getMaxPrepTime() > 0) {
+            builder.add(LongPoint.newRangeQuery(PREP_TIME, Long.MIN_VALUE, searchRequest.getMaxPrepTime()),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        Query query = builder.build();
+        int page = searchRequest.getPage();
+        int limit = searchRequest.getLimit();
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query, (page + 1) * limit, sort(searchRequest, hasText), true);
+            int total = searcher.count(query);
+
+            StoredFields storedFields = searcher.storedFields();
+            List<RecipeSearchResult> recipes = new ArrayList<>();
+            for (int i = page * limit; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                IndexedRecipe hit = fromStored(searcher, storedFields, scoreDoc);
+                recipes.add(new RecipeSearchResult(hit.id(), hit.title(), hit.image(), hit.cuisine(), hit.prepTime(),
+                        hit.ingredientNames(), hit.dietaryPreferences(), hit.authorName(),
+                        hit.favoritesCount() == null ? null : hit.favoritesCount().intValue(),
+                        Float.isNaN(scoreDoc.score) ? null : (double) scoreDoc.score));
+            }
+            int totalPages = (int) Math.ceil((double) total / limit);
+            return new SearchResponse(recipes, (long) total, page, totalPages);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException ex) {
+                    log.debug("Could not release searcher: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Sort sort(SearchRequest searchRequest, boolean hasText) {
+        String sortBy = searchRequest.getSortBy() == null ? "" : searchRequest.getSortBy().toLowerCase(Locale.ROOT);
+        return switch (sortBy) {
+            case "preptime" -> new Sort(new SortField(PREP_TIME, SortField.Type.LONG, true));
+            case "favorites" -> new Sort(new SortField(FAVORITES, SortField.Type.LONG, true));
+            case "relevance" -> hasText ? Sort.RELEVANCE : new Sort(new SortField(CREATED_AT, SortField.Type.LONG, true));
+            default -> new Sort(new SortField(CREATED_AT, SortField.Type.LONG, true));
+        };
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return terms;
+    }
+
+    private List<IndexableField> toDocument(IndexedRecipe recipe) {
+        List<IndexableField> fields = new ArrayList<>();
+        fields.add(new StringField(ID, recipe.id(), Field.Store.YES));
+        fields.add(new LongPoint(GENERATION, generation));
+        if (recipe.title() != null) {
+            fields.add(new TextField(TITLE, recipe.title(), Field.Store.YES));
+        }
+        for (String ingredient : recipe.ingredientNames()) {
+            fields.add(new TextField(INGREDIENTS, ingredient, Field.Store.NO));
+            fields.add(new StoredField(INGREDIENT_NAME, ingredient));
+        }
+        if (recipe.cuisine() != null) {
+            fields.add(new StoredField(CUISINE, recipe.cuisine()));
+            fields.add(new StringField(CUISINE_KEY, key(recipe.cuisine()), Field.Store.NO));
+        }
+        for (String diet : recipe.dietaryPreferences()) {
+            fields.add(new StoredField(DIET, diet));
+            fields.add(new StringField(DIET_KEY, key(diet), Field.Store.NO));
+        }
+        if (recipe.prepTime() != null) {
+            fields.add(new LongPoint(PREP_TIME, recipe.prepTime()));
+            fields.add(new NumericDocValuesField(PREP_TIME, recipe.prepTime()));
+            fields.add(new StoredField(PREP_TIME, recipe.prepTime()));
+        }
+        // Doc values only: updated in place by adjustFavorites
+        fields.add(new NumericDocValuesField(FAVORITES, recipe.favoritesCount() == null ? 0 : recipe.favoritesCount()));
+        long createdAt = recipe.createdAt() == null ? 0 : recipe.createdAt();
+        fields.add(new NumericDocValuesField(CREATED_AT, createdAt));
+        fields.add(new StoredField(CREATED_AT, createdAt));
+        if (recipe.image() != null) {
+            fields.add(new StoredField(IMAGE, recipe.image()));
+        }
+        if (recipe.authorName() != null) {
+            fields.add(new StoredField(AUTHOR, recipe.authorName()));
+        }
+        return fields;
+    }
+
+    private static IndexedRecipe fromStored(IndexSearcher searcher, StoredFields storedFields, ScoreDoc scoreDoc)
+            throws IOException {
+        org.apache.lucene.document.Document doc = storedFields.document(scoreDoc.doc);
+        return new IndexedRecipe(
+                doc.get(ID),
+                doc.get(TITLE),
+                doc.get(IMAGE),
+                doc.get(CUISINE),
+                storedLong(doc, PREP_TIME),
+                List.of(doc.getValues(INGREDIENT_NAME)),
+                List.of(doc.getValues(DIET)),
+                doc.get(AUTHOR),
+                docValue(searcher, scoreDoc.doc, FAVORITES),
+                storedLong(doc, CREATED_AT));
+    }
+
+    private static long docValue(IndexSearcher searcher, int doc, String field) throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+        NumericDocValues values = leaf.reader().getNumericDocValues(field);
+        return values != null && values.advanceExact(doc - leaf.docBase) ? values.longValue() : 0;
+    }
+
+    private static Long storedLong(org.apache.lucene.document.Document doc, String field) {
+        IndexableField value = doc.getField(field);
+        return value == null || value.numericValue() == null ? null : value.numericValue().longValue();
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static List<String> stringList(Object value) {
+        List<String> values = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (item != null) {
+                    values.add(item.toString());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The recipe fields the index knows about
+     */
+    private record IndexedRecipe(String id, String title, String image, String cuisine, Long prepTime,
+            List<String> ingredientNames, List<String> dietaryPreferences, String authorName, Long favoritesCount,
+            Long createdAt) {
+
+        static IndexedRecipe of(Recipe recipe) {
+            return new IndexedRecipe(recipe.getId(), recipe.getTitle(), recipe.getImage(), recipe.getCuisine(),
+                    recipe.getPrepTime(),
+                    recipe.getIngredientNames() == null ? List.of() : recipe.getIngredientNames(),
+                    recipe.getDietaryPreferences() == null ? List.of() : recipe.getDietaryPreferences(),
+                    recipe.getAuthor() == null ? null : recipe.getAuthor().getUsername(),
+                    recipe.getFavoritesCount() == null ? null : recipe.getFavoritesCount().longValue(),
+                    recipe.getCreatedAt());
+        }
+    }
+}
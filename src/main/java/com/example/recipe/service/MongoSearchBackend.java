@@ -0,0 +1,145 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.RecipeSearchResult;
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Default search backend, and the fallback of every other one. Runs on the
+ * read path of {@link MongoRouter}.
+ */
+@Component
+@AllArgsConstructor
+public class MongoSearchBackend implements SearchBackend {
+
+    private final MongoRouter mongoRouter;
+    private final QueryDeadlines deadlines;
+
+    /**
+     * Advanced search with MongoDB Aggregation Pipeline
+     * 
+     * MongoDB Aggregation is a powerful framework for data transformation.
+     * Think of it like an assembly line where data passes through multiple stages.
+     * 
+     * STAGES:
+     * 1. $match: Filter documents (like WHERE in SQL)
+     * 2. $lookup: Join with another collection (like SQL JOIN)
+     * 3. $sort: Order results
+     * 4. $skip/$limit: Pagination
+     * 5. $project: Select which fields to return
+     *
+     * The aggregation and the count share the "search" deadline.
+     */
+    @Override
+    public SearchResponse search(SearchRequest searchRequest) {
+        List<Criteria> filters = new ArrayList<>();
+
+        // TEXT SEARCH: Searches all @TextIndexed fields (title, ingredients)
+        if (searchRequest.getSearchText() != null && !searchRequest.getSearchText().isBlank()) {
+            filters.add(Criteria.where("$text").is(searchRequest.getSearchText()));
+        }
+
+        // INGREDIENT FILTER: Find recipes containing specific ingredient
+        if (searchRequest.getIngredient() != null && !searchRequest.getIngredient().isBlank()) {
+            filters.add(Criteria.where("ingredientNames")
+                    .regex(searchRequest.getIngredient(), "i"));
+        }
+
+        // CUISINE FILTER
+        if (searchRequest.getCuisine() != null && !searchRequest.getCuisine().isBlank()) {
+            filters.add(Criteria.where("cuisine")
+                    .regex(searchRequest.getCuisine(), "i"));
+        }
+
+        // DIETARY PREFERENCE FILTER
+        if (searchRequest.getDietaryPreference() != null && !searchRequest.getDietaryPreference().isBlank()) {
+            filters.add(Criteria.where("dietaryPreferences")
+                    .in(searchRequest.getDietaryPreference()));
+        }
+
+        // PREP TIME FILTER: Show recipes with prepTime <= maxPrepTime
+        if (searchRequest.getMaxPrepTime() != null && searchRequest.getMaxPrepTime() > 0) {
+            filters.add(Criteria.where("prepTime")
+                    .lte(searchRequest.getMaxPrepTime()));
+        }
+
+        // Combine all filters with AND logic
+        Criteria criteria = new Criteria();
+        if (!filters.isEmpty()) {
+            criteria = new Criteria().andOperator(filters.toArray(new Criteria[0]));
+        }
+
+        // Build aggregation pipeline stages
+        List<AggregationOperation> operations = new ArrayList<>();
+
+        // STAGE 1: $match - Filter documents
+        operations.add(Aggregation.match(criteria));
+
+        // STAGE 2: $lookup - Join with User collection for author info
+        operations.add(Aggregation.lookup("users", "author._id", "_id", "authorInfo"));
+
+        // STAGE 3: $sort - Order results
+        String sortField = "createdAt";
+        if (searchRequest.getSortBy() != null) {
+            sortField = switch (searchRequest.getSortBy().toLowerCase()) {
+                case "preptime" -> "prepTime";
+                case "favorites" -> "favoritesCount";
+                default -> "createdAt";
+            };
+        }
+        operations.add(Aggregation.sort(Sort.Direction.DESC, sortField));
+
+        // STAGE 4: $skip - Skip documents for pagination
+        int skip = searchRequest.getPage() * searchRequest.getLimit();
+        operations.add(Aggregation.skip((long) skip));
+
+        // STAGE 5: $limit - Limit results per page
+        operations.add(Aggregation.limit(searchRequest.getLimit().longValue()));
+
+        // STAGE 6: $project - Select fields to return
+        operations.add(Aggregation.project()
+                .and("_id").as("id")
+                .and("title").as("title")
+                .and("image").as("image")
+                .and("cuisine").as("cuisine")
+                .and("prepTime").as("prepTime")
+                .and("ingredientNames").as("ingredientNames")
+                .and("dietaryPreferences").as("dietaryPreferences")
+                .and("favoritesCount").as("favoritesCount")
+                .and("authorInfo.username").as("authorName"));
+
+        Criteria match = criteria;
+        return deadlines.call("search", deadline -> {
+            // Execute aggregation pipeline
+            Aggregation aggregation = Aggregation.newAggregation(operations)
+                    .withOptions(deadline.aggregationOptions());
+            AggregationResults<RecipeSearchResult> results = mongoRouter.reads().aggregate(
+                    aggregation,
+                    "recipes",
+                    RecipeSearchResult.class);
+
+            List<RecipeSearchResult> recipes = results.getMappedResults();
+
+            // Calculate total count and pages
+            long totalCount = mongoRouter.reads().count(deadline.apply(Query.query(match)), Recipe.class);
+            int totalPages = (int) Math.ceil((double) totalCount / searchRequest.getLimit());
+
+            return new SearchResponse(recipes, totalCount, searchRequest.getPage(), totalPages);
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.dto.MultiSearchRequest;
+import com.example.recipe.dto.MultiSearchResponse;
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the searches of one multi-search request concurrently.
+ *
+ * Identical SearchRequests within a request run once and share the result.
+ * The searches go to a bounded pool with a bounded queue; when it is full a
+ * search fails with "busy" instead of queueing without limit. The request has
+ * one deadline (recipe.multi-search.timeout, shortened by X-Request-Timeout);
+ * it is handed to the searches as their query deadline, so Mongo stops work
+ * nobody waits for any more. Searches that miss it, or fail, are reported per
+ * position while the others are still returned.
+ */
+@Service
+@Slf4j
+public class MultiSearchService {
+
+    private final RecipeService recipeService;
+    private final QueryDeadlines queryDeadlines;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public MultiSearchService(RecipeService recipeService, QueryDeadlines queryDeadlines,
+            @Value("${recipe.multi-search.threads:8}") int threads,
+            @Value("${recipe.multi-search.queue-size:64}") int queueSize,
+            @Value("${recipe.multi-search.timeout:PT2S}") Duration timeout) {
+        this.recipeService = recipeService;
+        this.queryDeadlines = queryDeadlines;
+        this.timeout = timeout;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "multi-search-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public MultiSearchResponse search(MultiSearchRequest request) {
+        long started = System.nanoTime();
+        long deadline = queryDeadlines.endOf(timeout);
+        Map<SearchRequest, CompletableFuture<SearchResponse>> running = new HashMap<>();
+        List<CompletableFuture<SearchResponse>> perPosition = new ArrayList<>();
+        for (SearchRequest search : request.getSearches()) {
+            perPosition.add(running.computeIfAbsent(search, s -> submit(s, deadline)));
+        }
+
+        List<SearchResponse> results = new ArrayList<>();
+        Map<Integer, String> errors = new TreeMap<>();
+        for (int i = 0; i < perPosition.size(); i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.add(perPosition.get(i).get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                results.add(null);
+                errors.put(i, "Search timed out after " + (deadline - started) / 1_000_000 + " ms");
+            } catch (ExecutionException ex) {
+                Throwable failure = ex.getCause();
+                log.warn("Multi-search query {} failed: {}", i, failure.getMessage());
+                results.add(null);
+                errors.put(i, failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                results.add(null);
+                errors.put(i, "Search interrupted");
+            }
+        }
+        // Searches that missed the deadline are dropped from the queue if they have not started yet
+        running.values().forEach(future -> future.cancel(false));
+        return new MultiSearchResponse(results, errors);
+    }
+
+    private CompletableFuture<SearchResponse> submit(SearchRequest search, long deadline) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> queryDeadlines.within(deadline, () -> recipeService.advancedSearch(search)), executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Search capacity exhausted, busy"));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.recipe.exception.DeadlineExceededException;
+import com.mongodb.MongoExecutionTimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Deadlines for the Mongo work of one endpoint.
+ *
+ * {@link #call} starts the clock; every find, count and aggregation run under
+ * the {@link Deadline} gets the time that is left as maxTimeMS, so Mongo
+ * itself abandons the query once the deadline has passed and the connection
+ * is freed. A client can shorten the budget with the X-Request-Timeout header
+ * (milliseconds), e.g. to the time after which it gives up anyway; a blocked
+ * servlet thread cannot notice the disconnect itself. Exceeded deadlines are
+ * counted in recipe.query.deadline.exceeded and surface as
+ * {@link DeadlineExceededException} (504).
+ *
+ * Work handed to another thread (e.g. the multi-search pool) has no request
+ * there; {@link #within} carries the caller's deadline over, so the endpoint
+ * deadline is cut to whatever the caller has left.
+ */
+@Component
+public class QueryDeadlines {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final Map<String, Duration> budgets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> exceeded = new ConcurrentHashMap<>();
+    // System.nanoTime() by which work on this thread has to end, set by within()
+    private final ThreadLocal<Long> inheritedEnd = new ThreadLocal<>();
+
+    public QueryDeadlines(MeterRegistry meterRegistry,
+            @Value("${recipe.deadline.search:PT3S}") Duration search,
+            @Value("${recipe.deadline.list:PT5S}") Duration list) {
+        this.meterRegistry = meterRegistry;
+        this.budgets = Map.of("search", search, "list", list);
+    }
+
+    /**
+     * Run the Mongo work of an endpoint ("search" or "list") under its deadline
+     */
+    public <T> T call(String endpoint, Function<Deadline, T> work) {
+        long start = System.nanoTime();
+        long end = start + budget(endpoint).toNanos();
+        Long inherited = inheritedEnd.get();
+        if (inherited != null && inherited - end < 0) {
+            end = inherited;
+        }
+        long budgetMillis = Math.max(0, (end - start) / 1_000_000);
+        Deadline deadline = new Deadline(endpoint, end);
+        try {
+            return work.apply(deadline);
+        } catch (RuntimeException ex) {
+            if (!isTimeout(ex)) {
+                throw ex;
+            }
+            exceeded.computeIfAbsent(endpoint, name -> Counter.builder("recipe.query.deadline.exceeded")
+                    .tag("endpoint", name)
+                    .description("Queries abandoned because their endpoint deadline passed")
+                    .register(meterRegistry)).increment();
+            throw new DeadlineExceededException("The " + endpoint + " query did not finish within "
+                    + budgetMillis + " ms, try narrower filters");
+        }
+    }
+
+    /**
+     * System.nanoTime() at which a budget of at most {@code max} starting now
+     * ends, shortened by the X-Request-Timeout of the current request
+     */
+    public long endOf(Duration max) {
+        return System.nanoTime() + capped(max).toNanos();
+    }
+
+    /**
+     * Run work, typically on a pool thread, so that every {@link #call} in it
+     * ends by {@code endNanos} at the latest
+     */
+    public <T> T within(long endNanos, Supplier<T> work) {
+        Long previous = inheritedEnd.get();
+        inheritedEnd.set(endNanos);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                inheritedEnd.remove();
+            } else {
+                inheritedEnd.set(previous);
+            }
+        }
+    }
+
+    private Duration budget(String endpoint) {
+        Duration budget = budgets.get(endpoint);
+        if (budget == null) {
+            throw new IllegalArgumentException("No deadline configured for " + endpoint);
+        }
+        return capped(budget);
+    }
+
+    private Duration capped(Duration budget) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            String header = servlet.getRequest().getHeader(TIMEOUT_HEADER);
+            if (header != null) {
+                try {
+                    long clientMillis = Long.parseLong(header.trim());
+                    if (clientMillis > 0 && clientMillis < budget.toMillis()) {
+                        return Duration.ofMillis(clientMillis);
+                    }
+                } catch (NumberFormatException ex) {
+                    // Ignore a malformed header and keep the endpoint deadline
+                }
+            }
+        }
+        return budget;
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException || cause instanceof MongoExecutionTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static final class Deadline {
+
+        private final String endpoint;
+        private final long endNanos;
+
+        private Deadline(String endpoint, long endNanos) {
+            this.endpoint = endpoint;
+            this.endNanos = endNanos;
+        }
+
+        /**
+         * Time left, never less than 1 ms; throws once the deadline has passed
+         */
+        public Duration remaining() {
+            long left = endNanos - System.nanoTime();
+            if (left <= 0) {
+                throw new DeadlineExceededException("Deadline of " + endpoint + " passed");
+            }
+            return Duration.ofMillis(Math.max(1, left / 1_000_000));
+        }
+
+        public Query apply(Query query) {
+            return query.maxTime(remaining());
+        }
+
+        public AggregationOptions aggregationOptions() {
+            return AggregationOptions.builder().maxTime(remaining()).build();
+        }
+    }
+}
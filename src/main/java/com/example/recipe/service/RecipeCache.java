@@ -0,0 +1,109 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.event.RecipeResyncEvent;
+import com.example.recipe.model.Recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process LRU cache of recipes by id, with a time-to-live.
+ *
+ * Entries are dropped on local updates and deletes and on invalidations from
+ * other nodes (see {@link ClusterInvalidationService}). Favorites and view
+ * counters are not invalidated and may lag by up to the TTL. Cached recipes
+ * are shared and must not be mutated.
+ */
+@Component
+public class RecipeCache {
+
+    private record Entry(Recipe recipe, long expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // Bumped by every invalidation; a load that overlapped one is not cached
+    private long invalidations;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecipeCache(MeterRegistry meterRegistry,
+            @Value("${recipe.cache.enabled:true}") boolean enabled,
+            @Value("${recipe.cache.max-size:10000}") int maxSize,
+            @Value("${recipe.cache.ttl:PT30S}") Duration ttl) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder("recipe.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recipe.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("recipe.cache.size", this, RecipeCache::size).register(meterRegistry);
+    }
+
+    public synchronized Optional<Recipe> get(String recipeId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Entry entry = entries.get(recipeId);
+        if (entry == null || entry.expiresAt() < System.currentTimeMillis()) {
+            if (entry != null) {
+                entries.remove(recipeId);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.recipe());
+    }
+
+    /**
+     * Taken before loading a recipe and handed to {@link #put}, so that a load
+     * racing with an update cannot cache the old state
+     */
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    public synchronized void put(Recipe recipe, long stamp) {
+        if (enabled && recipe.getId() != null && stamp == invalidations) {
+            entries.put(recipe.getId(), new Entry(recipe, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    public synchronized void invalidate(String recipeId) {
+        invalidations++;
+        entries.remove(recipeId);
+    }
+
+    public synchronized void invalidateAll(Collection<String> recipeIds) {
+        invalidations++;
+        recipeIds.forEach(entries::remove);
+    }
+
+    @EventListener(RecipeResyncEvent.class)
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
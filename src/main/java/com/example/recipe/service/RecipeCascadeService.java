@@ -0,0 +1,226 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.model.CascadeJob;
+import com.example.recipe.model.User;
+import com.mongodb.DBRef;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes references to deleted recipes from users' recipesAuthored and
+ * recipesSaved sets.
+ *
+ * A job is recorded in cascade_jobs when the recipe is deleted and then
+ * processed on a background thread: matching users are found through the
+ * reference indexes in _id order and cleaned up with one $pull updateMany per
+ * batch, pausing between batches. The last processed user id is checkpointed
+ * after every batch, so unfinished jobs resume after a restart.
+ */
+@Service
+@Slf4j
+public class RecipeCascadeService {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private final Duration batchDelay;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recipe-cascade");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong jobsQueued = new AtomicLong();
+    private final AtomicLong jobsCompleted = new AtomicLong();
+    private final AtomicLong jobsFailed = new AtomicLong();
+    private final AtomicLong usersUpdated = new AtomicLong();
+
+    public RecipeCascadeService(MongoTemplate mongoTemplate,
+            @Value("${recipe.cascade.batch-size:500}") int batchSize,
+            @Value("${recipe.cascade.batch-delay:PT0.1S}") Duration batchDelay,
+            @Value("${recipe.cascade.lease:PT5M}") Duration lease,
+            @Value("${recipe.cascade.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Record a cleanup job for a deleted recipe and run it in the background
+     */
+    public void enqueue(String recipeId) {
+        long now = System.currentTimeMillis();
+        CascadeJob job = new CascadeJob();
+        job.setId(recipeId);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        mongoTemplate.save(job);
+        submit(recipeId);
+    }
+
+    /**
+     * Pick up jobs left unfinished by a previous run, a failed attempt or another node
+     */
+    @Scheduled(fixedDelayString = "${recipe.cascade.resume-interval:PT5M}", initialDelayString = "${recipe.cascade.resume-initial-delay:PT10S}")
+    public void resumePendingJobs() {
+        executor.execute(() -> {
+            try {
+                Query query = Query.query(Criteria.where("status").in(CascadeJob.Status.PENDING,
+                        CascadeJob.Status.RUNNING));
+                query.fields().include("_id");
+                for (CascadeJob job : mongoTemplate.find(query, CascadeJob.class)) {
+                    submit(job.getId());
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Could not resume cascade jobs: {}", ex.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs keep their checkpoint and lease and are resumed on the next start
+        executor.shutdownNow();
+    }
+
+    private void submit(String recipeId) {
+        jobsQueued.incrementAndGet();
+        executor.execute(() -> {
+            jobsQueued.decrementAndGet();
+            run(recipeId);
+        });
+    }
+
+    private void run(String recipeId) {
+        CascadeJob job = claim(recipeId);
+        if (job == null) {
+            return;
+        }
+
+        DBRef reference = new DBRef("recipes", ObjectId.isValid(recipeId) ? new ObjectId(recipeId) : recipeId);
+        String lastUserId = job.getLastUserId();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Query batchQuery = Query.query(new Criteria().orOperator(
+                        Criteria.where("recipesAuthored").is(reference),
+                        Criteria.where("recipesSaved").is(reference)))
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit(batchSize);
+                if (lastUserId != null) {
+                    batchQuery.addCriteria(Criteria.where("_id").gt(new ObjectId(lastUserId)));
+                }
+                batchQuery.fields().include("_id");
+
+                List<Object> userIds = mongoTemplate.find(batchQuery, Document.class, "users").stream()
+                        .map(user -> user.get("_id"))
+                        .toList();
+                if (userIds.isEmpty()) {
+                    break;
+                }
+
+                long modified = mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("_id").in(userIds)),
+                        new Update().pull("recipesAuthored", reference).pull("recipesSaved", reference),
+                        User.class).getModifiedCount();
+                usersUpdated.addAndGet(modified);
+                lastUserId = userIds.get(userIds.size() - 1).toString();
+                checkpoint(recipeId, lastUserId, modified);
+
+                Thread.sleep(batchDelay.toMillis());
+            }
+            if (!Thread.currentThread().isInterrupted()) {
+                finish(recipeId, CascadeJob.Status.DONE, null);
+                jobsCompleted.incrementAndGet();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Cascade cleanup of recipe {} failed: {}", recipeId, ex.getMessage());
+            boolean giveUp = job.getAttempts() >= maxAttempts;
+            finish(recipeId, giveUp ? CascadeJob.Status.FAILED : CascadeJob.Status.PENDING, ex.getMessage());
+            if (giveUp) {
+                jobsFailed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Take the lease on a job unless it is finished or another node holds it
+     */
+    private CascadeJob claim(String recipeId) {
+        long now = System.currentTimeMillis();
+        Query query = Query.query(Criteria.where("_id").is(recipeId)
+                .and("status").in(CascadeJob.Status.PENDING, CascadeJob.Status.RUNNING)
+                .and("lockedUntil").lt(now));
+        Update update = new Update()
+                .set("status", CascadeJob.Status.RUNNING)
+                .set("lockedUntil", now + lease.toMillis())
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                CascadeJob.class);
+    }
+
+    private void checkpoint(String recipeId, String lastUserId, long modified) {
+        long now = System.currentTimeMillis();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(recipeId)),
+                new Update()
+                        .set("lastUserId", lastUserId)
+                        .inc("usersUpdated", modified)
+                        .set("lockedUntil", now + lease.toMillis())
+                        .set("updatedAt", now),
+                CascadeJob.class);
+    }
+
+    private void finish(String recipeId, CascadeJob.Status status, String error) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(recipeId)),
+                new Update()
+                        .set("status", status)
+                        .set("error", error)
+                        .set("lockedUntil", 0L)
+                        .set("updatedAt", System.currentTimeMillis()),
+                CascadeJob.class);
+    }
+
+    /**
+     * Progress summary for the actuator endpoint
+     */
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("queued", jobsQueued.get());
+        progress.put("completed", jobsCompleted.get());
+        progress.put("failed", jobsFailed.get());
+        progress.put("usersUpdated", usersUpdated.get());
+
+        Query unfinished = Query.query(Criteria.where("status").ne(CascadeJob.Status.DONE))
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt"))
+                .limit(20);
+        progress.put("unfinishedJobs", mongoTemplate.find(unfinished, CascadeJob.class));
+        return progress;
+    }
+}
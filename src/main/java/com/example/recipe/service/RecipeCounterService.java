@@ -0,0 +1,239 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.model.Recipe;
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Favorites and view counters of recipes.
+ *
+ * By default every increment is an immediate $inc. With write-behind enabled,
+ * increments accumulate in per-recipe LongAdder cells and are flushed as one
+ * unordered bulkWrite of $inc operations, either on a fixed interval or as soon
+ * as the number of pending recipes reaches the configured batch size. Hot recipes
+ * then cost one write per flush instead of one write per save.
+ */
+@Service
+@Slf4j
+public class RecipeCounterService {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean writeBehind;
+    private final int maxPending;
+
+    private final Map<String, PendingCounts> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger dirtyRecipes = new AtomicInteger();
+    private final ReadWriteLock evictionLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recipe-counter-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter favoriteIncrements;
+    private final Counter viewIncrements;
+    private final Counter documentWrites;
+    private final Counter coalescedUpdates;
+
+    public RecipeCounterService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${recipe.counters.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${recipe.counters.write-behind.max-pending:1000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.writeBehind = writeBehind;
+        this.maxPending = maxPending;
+
+        this.favoriteIncrements = Counter.builder("recipe.counters.increments").tag("counter", "favorites")
+                .register(meterRegistry);
+        this.viewIncrements = Counter.builder("recipe.counters.increments").tag("counter", "views")
+                .register(meterRegistry);
+        this.documentWrites = Counter.builder("recipe.counters.writes")
+                .description("Recipe documents written by counter updates")
+                .register(meterRegistry);
+        this.coalescedUpdates = Counter.builder("recipe.counters.coalesced")
+                .description("Counter updates merged into another update of the same recipe")
+                .register(meterRegistry);
+        Gauge.builder("recipe.counters.pending", dirtyRecipes, AtomicInteger::get)
+                .description("Recipes with buffered counter updates")
+                .register(meterRegistry);
+    }
+
+    public void incrementFavorites(String recipeId, int delta) {
+        favoriteIncrements.increment();
+        if (!writeBehind) {
+            apply(recipeId, new Update().inc("favoritesCount", delta));
+            return;
+        }
+        buffer(recipeId, delta, 0);
+    }
+
+    public void incrementViews(String recipeId) {
+        viewIncrements.increment();
+        if (!writeBehind) {
+            apply(recipeId, new Update().inc("viewsCount", 1));
+            return;
+        }
+        buffer(recipeId, 0, 1);
+    }
+
+    private void apply(String recipeId, Update update) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(recipeId)), update, Recipe.class);
+        documentWrites.increment();
+    }
+
+    private void buffer(String recipeId, int favorites, int views) {
+        evictionLock.readLock().lock();
+        try {
+            PendingCounts counts = pending.computeIfAbsent(recipeId, id -> new PendingCounts());
+            counts.favorites.add(favorites);
+            counts.views.add(views);
+            counts.updates.increment();
+            if (counts.dirty.compareAndSet(false, true)
+                    && dirtyRecipes.incrementAndGet() >= maxPending
+                    && flushScheduled.compareAndSet(false, true)) {
+                flushExecutor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            }
+        } finally {
+            evictionLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write all buffered increments in a single unordered bulk write
+     */
+    @Scheduled(fixedDelayString = "${recipe.counters.write-behind.flush-interval:PT5S}")
+    public synchronized void flush() {
+        if (!writeBehind || pending.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+        List<Drained> drained = new ArrayList<>();
+        long coalesced = 0;
+
+        for (Map.Entry<String, PendingCounts> entry : pending.entrySet()) {
+            PendingCounts counts = entry.getValue();
+            if (!counts.dirty.compareAndSet(true, false)) {
+                counts.idleFlushes++;
+                continue;
+            }
+            dirtyRecipes.decrementAndGet();
+            counts.idleFlushes = 0;
+
+            long favorites = counts.favorites.sumThenReset();
+            long views = counts.views.sumThenReset();
+            long updates = counts.updates.sumThenReset();
+            if (favorites == 0 && views == 0) {
+                // e.g. a save and an unsave that cancelled out
+                coalesced += updates;
+                continue;
+            }
+
+            Update update = new Update();
+            if (favorites != 0) {
+                update.inc("favoritesCount", favorites);
+            }
+            if (views != 0) {
+                update.inc("viewsCount", views);
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(entry.getKey())), update);
+            drained.add(new Drained(counts, favorites, views));
+            coalesced += Math.max(updates - 1, 0);
+        }
+
+        try {
+            if (!drained.isEmpty()) {
+                bulk.execute();
+            }
+            documentWrites.increment(drained.size());
+            coalescedUpdates.increment(coalesced);
+        } catch (BulkOperationException ex) {
+            // Only the failed updates go back; the rest were applied
+            for (BulkWriteError error : ex.getErrors()) {
+                restore(drained.get(error.getIndex()));
+            }
+            documentWrites.increment(drained.size() - ex.getErrors().size());
+            log.warn("Counter flush failed for {} of {} recipes, retrying on the next flush",
+                    ex.getErrors().size(), drained.size());
+        } catch (RuntimeException ex) {
+            // Re-apply everything: an ambiguous network error may then count twice, which beats losing counts
+            drained.forEach(this::restore);
+            log.warn("Counter flush of {} recipes failed, retrying on the next flush: {}", drained.size(),
+                    ex.getMessage());
+        }
+
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void restore(Drained drained) {
+        PendingCounts counts = drained.counts();
+        counts.favorites.add(drained.favorites());
+        counts.views.add(drained.views());
+        if (counts.dirty.compareAndSet(false, true)) {
+            dirtyRecipes.incrementAndGet();
+        }
+    }
+
+    private void evictIdle() {
+        evictionLock.writeLock().lock();
+        try {
+            Iterator<PendingCounts> it = pending.values().iterator();
+            while (it.hasNext()) {
+                PendingCounts counts = it.next();
+                if (counts.idleFlushes >= 2 && !counts.dirty.get()) {
+                    it.remove();
+                }
+            }
+        } finally {
+            evictionLock.writeLock().unlock();
+        }
+    }
+
+    private record Drained(PendingCounts counts, long favorites, long views) {
+    }
+
+    private static final class PendingCounts {
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder favorites = new LongAdder();
+        private final LongAdder views = new LongAdder();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private int idleFlushes;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.recipe.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.exception.DuplicateRecipeException;
+import com.example.recipe.model.Recipe;
+
+/**
+ * Near-duplicate detection for new recipes.
+ *
+ * Candidates are the recipes sharing at least one SimHash band, looked up band
+ * by band with an indexed equality query bounded by
+ * {@code recipe.dedup.max-candidates}, so the cost per insert does not grow
+ * with the catalog. Querying each band on its own keeps a crowded band from
+ * using up the candidates of the others. Depending on {@code recipe.dedup.mode}
+ * a near-duplicate is only flagged through {@link Recipe#getDuplicateOf()},
+ * rejected, or ignored.
+ */
+@Service
+public class RecipeDeduplicationService {
+
+    public enum Mode {
+        OFF, FLAG, REJECT
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final Mode mode;
+    private final int maxDistance;
+    private final int maxCandidates;
+
+    public RecipeDeduplicationService(MongoTemplate mongoTemplate,
+            @Value("${recipe.dedup.mode:FLAG}") Mode mode,
+            @Value("${recipe.dedup.max-distance:3}") int maxDistance,
+            @Value("${recipe.dedup.max-candidates:100}") int maxCandidates) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+        // Distances above BANDS - 1 are not guaranteed to share a band
+        this.maxDistance = Math.min(maxDistance, RecipeFingerprints.BANDS - 1);
+        this.maxCandidates = maxCandidates;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Fingerprint the recipe and apply the configured policy.
+     *
+     * @throws DuplicateRecipeException in REJECT mode when a near-duplicate exists
+     */
+    public void check(Recipe recipe) {
+        check(recipe, List.of());
+    }
+
+    /**
+     * Same as {@link #check(Recipe)}, also comparing against recipes of the same
+     * import batch that are not stored yet
+     */
+    public void check(Recipe recipe, Collection<Recipe> pending) {
+        // Only this check may mark a duplicate, whatever the client sent
+        recipe.setDuplicateOf(null);
+        RecipeFingerprints.apply(recipe);
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        Optional<Recipe> duplicate = findNearDuplicate(recipe);
+        if (duplicate.isEmpty()) {
+            for (Recipe other : pending) {
+                if (other.getSimHash() != null
+                        && RecipeFingerprints.distance(recipe.getSimHash(), other.getSimHash()) <= maxDistance) {
+                    if (mode == Mode.REJECT) {
+                        throw new DuplicateRecipeException("Recipe looks like a duplicate of \""
+                                + other.getTitle() + "\" in the same import");
+                    }
+                    // Not stored yet, so there is no id to point at
+                    return;
+                }
+            }
+            return;
+        }
+        if (mode == Mode.REJECT) {
+            throw new DuplicateRecipeException("Recipe looks like a duplicate of " + duplicate.get().getId());
+        }
+        recipe.setDuplicateOf(duplicate.get().getId());
+    }
+
+    /**
+     * Closest stored recipe within the configured Hamming distance, if any
+     */
+    public Optional<Recipe> findNearDuplicate(Recipe recipe) {
+        if (recipe.getSimHash() == null) {
+            RecipeFingerprints.apply(recipe);
+        }
+        long simHash = recipe.getSimHash();
+
+        Recipe closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (String band : recipe.getSimHashBands()) {
+            Query query = Query.query(Criteria.where("simHashBands").is(band)).limit(maxCandidates);
+            if (recipe.getId() != null) {
+                query.addCriteria(Criteria.where("_id").ne(recipe.getId()));
+            }
+            query.fields().include("title", "simHash");
+
+            for (Recipe candidate : mongoTemplate.find(query, Recipe.class)) {
+                if (candidate.getSimHash() == null) {
+                    continue;
+                }
+                int distance = RecipeFingerprints.distance(simHash, candidate.getSimHash());
+                if (distance <= maxDistance && distance < closestDistance) {
+                    closest = candidate;
+                    closestDistance = distance;
+                }
+            }
+            if (closestDistance == 0) {
+                break;
+            }
+        }
+        return Optional.ofNullable(closest);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.model.Recipe;
+import com.example.recipe.model.RecipeDetails;
+import com.example.recipe.repository.RecipeRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Storage of the heavy recipe fields (steps and ingredients) in
+ * recipe_details, so that the recipes collection only holds summaries.
+ *
+ * With recipe.storage.split-details on, saves write the details first and
+ * then the recipe without them; a stored recipe therefore always has its
+ * details, at worst an orphaned details document is left behind. Reads attach
+ * the details only where a full recipe is needed. A recipe that still carries
+ * the fields inline (not migrated yet, or written with the split turned off)
+ * is used as it is.
+ */
+@Service
+@Slf4j
+public class RecipeDetailsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipeRepository recipeRepository;
+    private final boolean split;
+
+    public RecipeDetailsService(MongoTemplate mongoTemplate, RecipeRepository recipeRepository,
+            @Value("${recipe.storage.split-details:true}") boolean split) {
+        this.mongoTemplate = mongoTemplate;
+        this.recipeRepository = recipeRepository;
+        this.split = split;
+    }
+
+    public Recipe save(Recipe recipe) {
+        RecipeKeys.apply(recipe);
+        if (!split) {
+            return recipeRepository.save(recipe);
+        }
+        RecipeDetails details = detach(recipe);
+        mongoTemplate.save(details);
+        Recipe saved = recipeRepository.save(recipe);
+        attach(saved, details);
+        return saved;
+    }
+
+    /**
+     * Write the editable and derived fields of an existing recipe with $set.
+     * The counters are left alone, so increments applied since the recipe was
+     * read are kept; the returned recipe carries the stored counts. Empty if
+     * the recipe was deleted in the meantime.
+     */
+    public Optional<Recipe> update(Recipe recipe) {
+        RecipeKeys.apply(recipe);
+        long now = System.currentTimeMillis();
+        Map<String, Integer> ingredients = recipe.getIngredients() != null ? recipe.getIngredients() : new HashMap<>();
+        Update update = new Update()
+                .set("title", recipe.getTitle())
+                .set("image", recipe.getImage())
+                .set("cuisine", recipe.getCuisine())
+                .set("prepTime", recipe.getPrepTime())
+                .set("ingredientNames", recipe.getIngredientNames())
+                .set("dietaryPreferences", recipe.getDietaryPreferences())
+                .set("titleKey", recipe.getTitleKey())
+                .set("cuisineKey", recipe.getCuisineKey())
+                .set("dietaryKeys", recipe.getDietaryKeys())
+                .set("simHash", recipe.getSimHash())
+                .set("simHashBands", recipe.getSimHashBands())
+                .set("duplicateOf", recipe.getDuplicateOf())
+                .set("updatedAt", now);
+
+        RecipeDetails details = null;
+        if (split) {
+            details = new RecipeDetails(recipe.getId(), ingredients, recipe.getSteps(), now);
+            mongoTemplate.save(details);
+            update.unset("ingredients").unset("steps");
+        } else {
+            update.set("ingredients", ingredients).set("steps", recipe.getSteps());
+        }
+
+        Recipe updated = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(recipe.getId())), update,
+                FindAndModifyOptions.options().returnNew(true), Recipe.class);
+        if (updated != null && details != null) {
+            attach(updated, details);
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    public List<Recipe> saveAll(List<Recipe> recipes) {
+        recipes.forEach(RecipeKeys::apply);
+        if (!split || recipes.isEmpty()) {
+            return recipeRepository.saveAll(recipes);
+        }
+        List<RecipeDetails> details = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecipeDetails.class);
+        for (Recipe recipe : recipes) {
+            RecipeDetails detached = detach(recipe);
+            details.add(detached);
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(detached.getId())), detached,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        List<Recipe> saved = recipeRepository.saveAll(recipes);
+        for (int i = 0; i < saved.size(); i++) {
+            attach(saved.get(i), details.get(i));
+        }
+        return saved;
+    }
+
+    /**
+     * Load the details into a recipe read from the recipes collection
+     */
+    public Recipe withDetails(Recipe recipe) {
+        if (needsDetails(recipe)) {
+            RecipeDetails details = mongoTemplate.findById(recipe.getId(), RecipeDetails.class);
+            if (details != null) {
+                attach(recipe, details);
+            }
+        }
+        return recipe;
+    }
+
+    /**
+     * Same as {@link #withDetails(Recipe)} for several recipes, with one query
+     */
+    public void withDetails(Collection<Recipe> recipes) {
+        List<String> ids = recipes.stream().filter(RecipeDetailsService::needsDetails).map(Recipe::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, RecipeDetails> details = new HashMap<>();
+        for (RecipeDetails found : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)),
+                RecipeDetails.class)) {
+            details.put(found.getId(), found);
+        }
+        for (Recipe recipe : recipes) {
+            RecipeDetails found = details.get(recipe.getId());
+            if (found != null && needsDetails(recipe)) {
+                attach(recipe, found);
+            }
+        }
+    }
+
+    public void delete(String recipeId) {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(recipeId)), RecipeDetails.class);
+        } catch (RuntimeException ex) {
+            // An orphaned details document is never read
+            log.warn("Removing details of recipe {} failed: {}", recipeId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Move the heavy fields off the recipe; a new recipe gets its id here so
+     * that the details can be written first
+     */
+    private static RecipeDetails detach(Recipe recipe) {
+        if (recipe.getId() == null) {
+            recipe.setId(new ObjectId().toHexString());
+            // An assigned id makes Spring Data treat the recipe as existing, so @CreatedDate is skipped
+            recipe.setCreatedAt(System.currentTimeMillis());
+        }
+        RecipeDetails details = new RecipeDetails(recipe.getId(),
+                recipe.getIngredients() != null ? recipe.getIngredients() : new HashMap<>(),
+                recipe.getSteps(), System.currentTimeMillis());
+        // Null fields are not written, so the recipe document is stored without them
+        recipe.setIngredients(null);
+        recipe.setSteps(null);
+        return details;
+    }
+
+    private static void attach(Recipe recipe, RecipeDetails details) {
+        recipe.setIngredients(details.getIngredients() != null ? details.getIngredients() : new HashMap<>());
+        recipe.setSteps(details.getSteps());
+    }
+
+    private static boolean needsDetails(Recipe recipe) {
+        return recipe.getSteps() == null && (recipe.getIngredients() == null || recipe.getIngredients().isEmpty());
+    }
+}
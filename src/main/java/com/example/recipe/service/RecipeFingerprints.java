@@ -0,0 +1,114 @@
+package com.example.recipe.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import com.example.recipe.model.Recipe;
+
+/**
+ * SimHash fingerprints of recipes.
+ *
+ * Title words, ingredient names and word pairs of the steps are hashed into a
+ * single 64-bit fingerprint; recipes that differ by small edits end up only a
+ * few bits apart. The fingerprint is also split into {@link #BANDS} 16-bit
+ * bands: by the pigeonhole principle two fingerprints within Hamming distance
+ * BANDS - 1 share at least one band exactly, so candidates can be found with
+ * an indexed equality lookup.
+ */
+public final class RecipeFingerprints {
+
+    public static final int BANDS = 4;
+    private static final int BAND_BITS = 64 / BANDS;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private RecipeFingerprints() {
+    }
+
+    public static long simHash(Recipe recipe) {
+        int[] weights = new int[64];
+
+        for (String word : words(recipe.getTitle())) {
+            add(weights, "t:" + word, 2);
+        }
+        if (recipe.getIngredientNames() != null) {
+            for (String ingredient : recipe.getIngredientNames()) {
+                if (ingredient != null && !ingredient.isBlank()) {
+                    add(weights, "i:" + ingredient.trim().toLowerCase(Locale.ROOT), 3);
+                }
+            }
+        }
+        List<String> steps = words(recipe.getSteps());
+        for (int i = 0; i + 1 < steps.size(); i++) {
+            add(weights, "s:" + steps.get(i) + " " + steps.get(i + 1), 1);
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static List<String> bands(long simHash) {
+        List<String> bands = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; band++) {
+            long value = (simHash >>> (band * BAND_BITS)) & ((1L << BAND_BITS) - 1);
+            bands.add(band + ":" + Long.toHexString(value));
+        }
+        return bands;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * Compute and store the fingerprint fields on the recipe
+     */
+    public static void apply(Recipe recipe) {
+        long simHash = simHash(recipe);
+        recipe.setSimHash(simHash);
+        recipe.setSimHashBands(bands(simHash));
+    }
+
+    private static void add(int[] weights, String feature, int weight) {
+        long hash = mix(fnv1a64(feature));
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((hash >>> bit) & 1) == 1 ? weight : -weight;
+        }
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    // splitmix64 finalizer, spreads FNV's weak low bits over the whole word
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.example.recipe.model.Recipe;
+
+/**
+ * Normalized copies of the fields the recipe lists filter on.
+ *
+ * Case-insensitive repository finders compile to anchored /i regexes, which
+ * cannot use an index bound; matching trimmed, lower-cased keys by equality
+ * can. Applied on every save by {@link RecipeDetailsService}.
+ */
+public final class RecipeKeys {
+
+    private RecipeKeys() {
+    }
+
+    public static void apply(Recipe recipe) {
+        recipe.setCuisineKey(key(recipe.getCuisine()));
+        recipe.setTitleKey(key(recipe.getTitle()));
+        recipe.setDietaryKeys(keys(recipe.getDietaryPreferences()));
+    }
+
+    public static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> keys(List<String> values) {
+        List<String> keys = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                String key = key(value);
+                if (key != null && !key.isEmpty() && !keys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.model.Recipe;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Single-flight layer for the hot reads of {@link RecipeService}: fetching a
+ * recipe by id and the unified search. Identical concurrent requests share one
+ * Mongo call (see {@link SingleFlight}); metrics are published as
+ * recipe.singleflight.calls with name "recipe" or "search".
+ */
+@Component
+public class RecipeReadCoalescer {
+
+    private final boolean enabled;
+    private final SingleFlight<String, StampedRecipe> recipes;
+    private final SingleFlight<SearchRequest, SearchResponse> searches;
+
+    public RecipeReadCoalescer(MeterRegistry meterRegistry,
+            @Value("${recipe.singleflight.enabled:true}") boolean enabled,
+            @Value("${recipe.singleflight.timeout:PT5S}") Duration timeout) {
+        this.enabled = enabled;
+        this.recipes = new SingleFlight<>("recipe", timeout, meterRegistry);
+        this.searches = new SingleFlight<>("search", timeout, meterRegistry);
+    }
+
+    /**
+     * The loader takes the {@link RecipeCache#stamp()} itself, so callers that
+     * join a running flight cache the result with the leader's stamp rather
+     * than one taken after an invalidation the result predates
+     */
+    public StampedRecipe recipe(String recipeId, Supplier<StampedRecipe> loader) {
+        return enabled ? recipes.execute(recipeId, loader) : loader.get();
+    }
+
+    /**
+     * SearchRequest equality covers every filter, sort and paging field, so only
+     * truly identical searches are coalesced
+     */
+    public SearchResponse search(SearchRequest request, Supplier<SearchResponse> loader) {
+        return enabled ? searches.execute(request, loader) : loader.get();
+    }
+
+    public record StampedRecipe(Optional<Recipe> recipe, long stamp) {
+    }
+}
@@ -1,36 +1,80 @@
 package com.example.recipe.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import com.example.recipe.dto.RecipeSearchResult;
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.RecipeBatch;
+import com.example.recipe.dto.RecipeImportResult;
 import com.example.recipe.dto.SearchRequest;
 import com.example.recipe.dto.SearchResponse;
+import com.example.recipe.dto.SimilarRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventBus;
+import com.example.recipe.exception.BadRequestException;
+import com.example.recipe.exception.DeadlineExceededException;
+import com.example.recipe.exception.DuplicateRecipeException;
 import com.example.recipe.exception.ForbiddenActionException;
 import com.example.recipe.exception.ResourceNotFoundException;
 import com.example.recipe.model.Recipe;
 import com.example.recipe.model.User;
 import com.example.recipe.repository.RecipeRepository;
 import com.example.recipe.repository.UserRepository;
+import com.example.recipe.service.RecipeReadCoalescer.StampedRecipe;
+import com.mongodb.DBRef;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @AllArgsConstructor
+@Slf4j
 public class RecipeService {
 
+    private static final int MAX_IMPORT_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    // ObjectIds grow with creation time, so _id descending lists newest first
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "_id");
+
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
     private final MongoTemplate mongoTemplate;
+    private final MongoRouter mongoRouter;
+    private final TrendingService trendingService;
+    private final RecipeCounterService counterService;
+    private final RecipeSimilarityService similarityService;
+    private final RecipeDeduplicationService deduplicationService;
+    private final RecipeCascadeService cascadeService;
+    private final AuthorStatsService authorStatsService;
+    private final RecipeEventBus eventBus;
+    private final RecipeReadCoalescer readCoalescer;
+    private final RecipeCache recipeCache;
+    private final RecipeDetailsService detailsService;
+    private final QueryDeadlines queryDeadlines;
+    private final MongoSearchBackend mongoSearchBackend;
+    private final Optional<LuceneSearchBackend> luceneSearchBackend;
+    private final Optional<CatalogSnapshot> catalogSnapshot;
 
     /**
      * Create a new recipe and automatically link it to the author
@@ -39,127 +83,262 @@ public class RecipeService {
         User author = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
+        deduplicationService.check(recipe);
         recipe.setAuthor(author);
-        Recipe savedRecipe = recipeRepository.save(recipe);
+        Recipe savedRecipe = detailsService.save(recipe);
 
         author.getRecipesAuthored().add(savedRecipe);
         userRepository.save(author);
+        authorStatsService.recipesCreated(userId, List.of(savedRecipe));
 
+        eventBus.publish(RecipeEvent.of(RecipeEvent.Type.CREATED, savedRecipe, userId));
         return savedRecipe;
     }
 
     /**
-     * Advanced search with MongoDB Aggregation Pipeline
-     * 
-     * MongoDB Aggregation is a powerful framework for data transformation.
-     * Think of it like an assembly line where data passes through multiple stages.
-     * 
-     * STAGES:
-     * 1. $match: Filter documents (like WHERE in SQL)
-     * 2. $lookup: Join with another collection (like SQL JOIN)
-     * 3. $sort: Order results
-     * 4. $skip/$limit: Pagination
-     * 5. $project: Select which fields to return
+     * Bulk import for one author. Near-duplicates (of stored recipes or of each
+     * other) are flagged or skipped according to the dedup mode.
      */
-    public SearchResponse advancedSearch(SearchRequest searchRequest) {
-        List<Criteria> filters = new ArrayList<>();
-
-        // TEXT SEARCH: Searches all @TextIndexed fields (title, ingredients)
-        if (searchRequest.getSearchText() != null && !searchRequest.getSearchText().isBlank()) {
-            filters.add(Criteria.where("$text").is(searchRequest.getSearchText()));
+    public RecipeImportResult importRecipes(List<Recipe> recipes, String userId) {
+        if (recipes.size() > MAX_IMPORT_SIZE) {
+            throw new BadRequestException("Cannot import more than " + MAX_IMPORT_SIZE + " recipes at once");
         }
+        User author = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        // INGREDIENT FILTER: Find recipes containing specific ingredient
-        if (searchRequest.getIngredient() != null && !searchRequest.getIngredient().isBlank()) {
-            filters.add(Criteria.where("ingredientNames")
-                    .regex(searchRequest.getIngredient(), "i"));
+        List<Recipe> accepted = new ArrayList<>();
+        Map<Integer, String> rejected = new LinkedHashMap<>();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            try {
+                deduplicationService.check(recipe, accepted);
+            } catch (DuplicateRecipeException ex) {
+                rejected.put(i, ex.getMessage());
+                continue;
+            }
+            recipe.setAuthor(author);
+            accepted.add(recipe);
         }
 
-        // CUISINE FILTER
-        if (searchRequest.getCuisine() != null && !searchRequest.getCuisine().isBlank()) {
-            filters.add(Criteria.where("cuisine")
-                    .regex(searchRequest.getCuisine(), "i"));
+        List<Recipe> savedRecipes = detailsService.saveAll(accepted);
+        if (!savedRecipes.isEmpty()) {
+            author.getRecipesAuthored().addAll(savedRecipes);
+            userRepository.save(author);
+            authorStatsService.recipesCreated(userId, savedRecipes);
+            for (Recipe saved : savedRecipes) {
+                eventBus.publish(RecipeEvent.of(RecipeEvent.Type.CREATED, saved, userId));
+            }
         }
+        return new RecipeImportResult(savedRecipes, rejected);
+    }
 
-        // DIETARY PREFERENCE FILTER
-        if (searchRequest.getDietaryPreference() != null && !searchRequest.getDietaryPreference().isBlank()) {
-            filters.add(Criteria.where("dietaryPreferences")
-                    .in(searchRequest.getDietaryPreference()));
-        }
+    /**
+     * Advanced search through the configured backend (recipe.search.backend).
+     * The Mongo aggregation pipeline serves the request whenever the Lucene
+     * index is not configured, not ready yet, or fails. When Mongo is down or
+     * misses its deadline too, the catalog snapshot answers. Identical
+     * concurrent searches share one execution.
+     */
+    public SearchResponse advancedSearch(SearchRequest searchRequest) {
+        return readCoalescer.search(searchRequest, () -> {
+            if (luceneSearchBackend.isPresent() && luceneSearchBackend.get().isReady()) {
+                try {
+                    return luceneSearchBackend.get().search(searchRequest);
+                } catch (RuntimeException ex) {
+                    log.warn("Lucene search failed, falling back to Mongo: {}", ex.getMessage());
+                }
+            }
+            if (catalogSnapshot.isPresent() && catalogSnapshot.get().bypassesMongo()) {
+                catalogSnapshot.get().recordDegraded("search");
+                return catalogSnapshot.get().search(searchRequest);
+            }
+            try {
+                return mongoSearchBackend.search(searchRequest);
+            } catch (DataAccessResourceFailureException | DeadlineExceededException ex) {
+                if (catalogSnapshot.isEmpty() || !catalogSnapshot.get().isLoaded()) {
+                    throw ex;
+                }
+                if (ex instanceof DataAccessResourceFailureException) {
+                    catalogSnapshot.get().mongoUnreachable();
+                }
+                log.warn("Mongo search failed, serving from the catalog snapshot: {}", ex.getMessage());
+                catalogSnapshot.get().recordDegraded("search");
+                return catalogSnapshot.get().search(searchRequest);
+            }
+        });
+    }
+
+    /**
+     * Recipes of an author, newest first, read from the primary so that a
+     * recipe the caller just created is always listed
+     */
+    public Slice<Recipe> getRecipesByAuthor(String userId, int page, int size) {
+        return recipeRepository.findByAuthorId(userId, PageRequest.of(page, size, NEWEST_FIRST));
+    }
+
+    /**
+     * Public listing of an author's recipes; may lag behind the primary by up
+     * to the configured max staleness
+     */
+    public Slice<Recipe> listRecipesByAuthor(String userId, int page, int size) {
+        Object authorId = ObjectId.isValid(userId) ? new ObjectId(userId) : userId;
+        return listRecipes(Query.query(Criteria.where("author.$id").is(authorId)),
+                PageRequest.of(page, size, NEWEST_FIRST));
+    }
 
-        // PREP TIME FILTER: Show recipes with prepTime <= maxPrepTime
-        if (searchRequest.getMaxPrepTime() != null && searchRequest.getMaxPrepTime() > 0) {
-            filters.add(Criteria.where("prepTime")
-                    .lte(searchRequest.getMaxPrepTime()));
+    /**
+     * Served from the recipe cache when possible; concurrent misses for the
+     * same recipe share one Mongo call. The only single-recipe read that loads
+     * steps and ingredients from recipe_details. While Mongo is unreachable a
+     * recipe missing from the cache is answered with its summary from the
+     * catalog snapshot, if it is in there.
+     */
+    public Optional<Recipe> getRecipeById(String recipeId) {
+        Optional<Recipe> cached = recipeCache.get(recipeId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        if (catalogSnapshot.isPresent() && catalogSnapshot.get().bypassesMongo()) {
+            Optional<Recipe> summary = catalogSnapshot.get().find(recipeId);
+            if (summary.isEmpty()) {
+                throw new DataAccessResourceFailureException("Mongo is unreachable and recipe " + recipeId
+                        + " is not in the catalog snapshot");
+            }
+            catalogSnapshot.get().recordDegraded("recipe");
+            return summary;
+        }
+        StampedRecipe loaded;
+        try {
+            loaded = readCoalescer.recipe(recipeId, () -> {
+                long stamp = recipeCache.stamp();
+                return new StampedRecipe(recipeRepository.findById(recipeId).map(detailsService::withDetails), stamp);
+            });
+        } catch (DataAccessResourceFailureException ex) {
+            catalogSnapshot.ifPresent(CatalogSnapshot::mongoUnreachable);
+            // Not found in the snapshot may just mean newer than the snapshot, so that stays a 503
+            Optional<Recipe> summary = catalogSnapshot.flatMap(snapshot -> snapshot.find(recipeId));
+            if (summary.isEmpty()) {
+                throw ex;
+            }
+            catalogSnapshot.get().recordDegraded("recipe");
+            return summary;
         }
+        loaded.recipe().ifPresent(found -> recipeCache.put(found, loaded.stamp()));
+        return loaded.recipe();
+    }
 
-        // Combine all filters with AND logic
-        Criteria criteria = new Criteria();
-        if (!filters.isEmpty()) {
-            criteria = new Criteria().andOperator(filters.toArray(new Criteria[0]));
+    /**
+     * Several recipes by id in request order. Cached recipes are served from
+     * the cache; the misses are read in one $in query as raw documents, their
+     * authors and their details in one more $in query each, instead of one
+     * DBRef fetch per recipe.
+     */
+    public RecipeBatch getRecipesByIds(List<String> recipeIds) {
+        List<String> ids = recipeIds.stream().distinct().toList();
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Cannot fetch more than " + MAX_BATCH_SIZE + " recipes at once");
         }
 
-        // Build aggregation pipeline stages
-        List<AggregationOperation> operations = new ArrayList<>();
+        Map<String, Recipe> found = new HashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (String id : ids) {
+            Optional<Recipe> cached = recipeCache.get(id);
+            if (cached.isPresent()) {
+                found.put(id, cached.get());
+            } else {
+                misses.add(ObjectId.isValid(id) ? new ObjectId(id) : id);
+            }
+        }
 
-        // STAGE 1: $match - Filter documents
-        operations.add(Aggregation.match(criteria));
+        if (!misses.isEmpty()) {
+            long stamp = recipeCache.stamp();
+            List<Document> documents = mongoTemplate.find(Query.query(Criteria.where("_id").in(misses)),
+                    Document.class, "recipes");
+            Map<Object, DBRef> authorRefs = new HashMap<>();
+            for (Document document : documents) {
+                // Detach the DBRef so the converter does not resolve it per recipe
+                if (document.remove("author") instanceof DBRef author) {
+                    authorRefs.put(document.get("_id"), author);
+                }
+            }
+            Map<String, User> authors = loadAuthors(authorRefs.values());
+            List<Recipe> loaded = new ArrayList<>();
+            for (Document document : documents) {
+                Recipe recipe = mongoTemplate.getConverter().read(Recipe.class, document);
+                DBRef author = authorRefs.get(document.get("_id"));
+                if (author != null) {
+                    recipe.setAuthor(authors.get(author.getId().toString()));
+                }
+                loaded.add(recipe);
+            }
+            // The cache holds full recipes, so the details are attached before caching
+            detailsService.withDetails(loaded);
+            for (Recipe recipe : loaded) {
+                recipeCache.put(recipe, stamp);
+                found.put(recipe.getId(), recipe);
+            }
+        }
 
-        // STAGE 2: $lookup - Join with User collection for author info
-        operations.add(Aggregation.lookup("users", "author._id", "_id", "authorInfo"));
+        List<Recipe> recipes = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Recipe recipe = found.get(id);
+            if (recipe != null) {
+                recipes.add(recipe);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new RecipeBatch(recipes, missing);
+    }
 
-        // STAGE 3: $sort - Order results
-        String sortField = "createdAt";
-        if (searchRequest.getSortBy() != null) {
-            sortField = switch (searchRequest.getSortBy().toLowerCase()) {
-                case "preptime" -> "prepTime";
-                case "favorites" -> "favoritesCount";
-                default -> "createdAt";
-            };
+    /**
+     * Authors by id with only their public profile; their own DBRef sets are
+     * not loaded
+     */
+    private Map<String, User> loadAuthors(Collection<DBRef> refs) {
+        Set<Object> authorIds = new HashSet<>();
+        refs.forEach(ref -> authorIds.add(ref.getId()));
+        if (authorIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("_id").in(authorIds));
+        query.fields().include("username", "email", "bio", "profileImage", "enabled");
+        Map<String, User> authors = new HashMap<>();
+        for (User author : mongoTemplate.find(query, User.class)) {
+            authors.put(author.getId(), author);
         }
-        operations.add(Aggregation.sort(Sort.Direction.DESC, sortField));
-
-        // STAGE 4: $skip - Skip documents for pagination
-        int skip = searchRequest.getPage() * searchRequest.getLimit();
-        operations.add(Aggregation.skip((long) skip));
-
-        // STAGE 5: $limit - Limit results per page
-        operations.add(Aggregation.limit(searchRequest.getLimit().longValue()));
-
-        // STAGE 6: $project - Select fields to return
-        operations.add(Aggregation.project()
-                .and("_id").as("id")
-                .and("title").as("title")
-                .and("image").as("image")
-                .and("cuisine").as("cuisine")
-                .and("prepTime").as("prepTime")
-                .and("ingredientNames").as("ingredientNames")
-                .and("dietaryPreferences").as("dietaryPreferences")
-                .and("favoritesCount").as("favoritesCount")
-                .and("authorInfo.username").as("authorName"));
-
-        // Execute aggregation pipeline
-        Aggregation aggregation = Aggregation.newAggregation(operations);
-        AggregationResults<RecipeSearchResult> results = mongoTemplate.aggregate(
-                aggregation,
-                "recipes",
-                RecipeSearchResult.class);
-
-        List<RecipeSearchResult> recipes = results.getMappedResults();
-
-        // Calculate total count and pages
-        long totalCount = mongoTemplate.count(Query.query(criteria), Recipe.class);
-        int totalPages = (int) Math.ceil((double) totalCount / searchRequest.getLimit());
-
-        return new SearchResponse(recipes, totalCount, searchRequest.getPage(), totalPages);
+        return authors;
     }
 
-    public List<Recipe> getRecipesByAuthor(String userId) {
-        return recipeRepository.findByAuthorId(userId);
+    /**
+     * Fetch a recipe for display and count it as a view for trending
+     */
+    public Optional<Recipe> viewRecipe(String recipeId) {
+        Optional<Recipe> recipe = getRecipeById(recipeId);
+        recipe.ifPresent(found -> {
+            try {
+                counterService.incrementViews(found.getId());
+            } catch (DataAccessResourceFailureException ex) {
+                // Served from the cache or the snapshot while Mongo is down; losing the view beats failing the read
+                log.debug("View of recipe {} not counted: {}", found.getId(), ex.getMessage());
+            }
+            trendingService.recordView(found);
+        });
+        return recipe;
     }
 
-    public Optional<Recipe> getRecipeById(String recipeId) {
-        return recipeRepository.findById(recipeId);
+    /**
+     * Recipes with similar ingredients, served from the in-memory MinHash/LSH index
+     */
+    public List<SimilarRecipe> getSimilarRecipes(String recipeId, int limit, boolean preferSameCuisine) {
+        if (!similarityService.contains(recipeId)) {
+            // Not indexed yet (e.g. startup rebuild still running)
+            Recipe recipe = recipeRepository.findById(recipeId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + recipeId));
+            similarityService.index(recipe);
+        }
+        return similarityService.findSimilar(recipeId, limit, preferSameCuisine);
     }
 
     public Recipe updateRecipe(String recipeId, Recipe updates, String userId) {
@@ -169,7 +348,11 @@ public class RecipeService {
         if (!recipe.getAuthor().getId().equals(userId)) {
             throw new ForbiddenActionException("Only the author can update this recipe");
         }
+        // The fingerprint and the rewritten details need the current steps and ingredients
+        detailsService.withDetails(recipe);
 
+        Long oldPrepTime = recipe.getPrepTime();
+        Long oldSimHash = recipe.getSimHash();
         if (updates.getTitle() != null)
             recipe.setTitle(updates.getTitle());
         if (updates.getImage() != null)
@@ -187,22 +370,43 @@ public class RecipeService {
         if (updates.getDietaryPreferences() != null)
             recipe.setDietaryPreferences(updates.getDietaryPreferences());
 
-        return recipeRepository.save(recipe);
+        RecipeFingerprints.apply(recipe);
+        if (!Objects.equals(oldSimHash, recipe.getSimHash())) {
+            // Title, ingredients or steps changed: an edit must not turn the recipe into a duplicate unnoticed
+            deduplicationService.check(recipe);
+        }
+        // Only the edited fields are written; a full save would reset counters incremented since the read
+        Recipe savedRecipe = detailsService.update(recipe)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + recipeId));
+        recipeCache.invalidate(recipeId);
+        authorStatsService.prepTimeChanged(userId, oldPrepTime, savedRecipe.getPrepTime());
+        eventBus.publish(RecipeEvent.of(RecipeEvent.Type.UPDATED, savedRecipe, userId));
+        return savedRecipe;
     }
 
+    /**
+     * Delete a recipe with a single write; references held by users are
+     * cleaned up afterwards by the cascade job
+     */
     public void deleteRecipe(String recipeId, String userId) {
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipe not found with id: " + recipeId));
-
-        if (!recipe.getAuthor().getId().equals(userId)) {
+        User authorRef = new User();
+        authorRef.setId(userId);
+        Query query = Query.query(Criteria.where("_id").is(recipeId).and("author").is(authorRef));
+        query.fields().include("title", "cuisine", "prepTime", "favoritesCount");
+
+        Recipe removed = mongoTemplate.findAndRemove(query, Recipe.class);
+        if (removed == null) {
+            if (!recipeRepository.existsById(recipeId)) {
+                throw new ResourceNotFoundException("Recipe not found with id: " + recipeId);
+            }
             throw new ForbiddenActionException("Only the author can delete this recipe");
         }
 
-        User author = recipe.getAuthor();
-        author.getRecipesAuthored().remove(recipe);
-        userRepository.save(author);
-
-        recipeRepository.deleteById(recipeId);
+        recipeCache.invalidate(recipeId);
+        detailsService.delete(recipeId);
+        cascadeService.enqueue(recipeId);
+        authorStatsService.recipeDeleted(userId, removed);
+        eventBus.publish(RecipeEvent.of(RecipeEvent.Type.DELETED, removed, userId));
     }
 
     public void addRecipeToUserSaved(String recipeId, String userId) {
@@ -214,10 +418,11 @@ public class RecipeService {
 
         if (!user.getRecipesSaved().contains(recipe)) {
             user.getRecipesSaved().add(recipe);
-            recipe.setFavoritesCount((recipe.getFavoritesCount() != null ? recipe.getFavoritesCount() : 0) + 1);
 
             userRepository.save(user);
-            recipeRepository.save(recipe);
+            counterService.incrementFavorites(recipeId, 1);
+            authorStatsService.favoritesChanged(recipe, 1);
+            eventBus.publish(RecipeEvent.of(RecipeEvent.Type.SAVED, recipe, userId));
         }
     }
 
@@ -229,10 +434,10 @@ public class RecipeService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
         if (user.getRecipesSaved().remove(recipe)) {
-            recipe.setFavoritesCount((recipe.getFavoritesCount() != null ? recipe.getFavoritesCount() : 0) - 1);
-
             userRepository.save(user);
-            recipeRepository.save(recipe);
+            counterService.incrementFavorites(recipeId, -1);
+            authorStatsService.favoritesChanged(recipe, -1);
+            eventBus.publish(RecipeEvent.of(RecipeEvent.Type.UNSAVED, recipe, userId));
         }
     }
 
@@ -243,19 +448,54 @@ public class RecipeService {
         return user.getRecipesSaved().stream().toList();
     }
 
-    public List<Recipe> getRecipesByCuisine(String cuisine) {
-        return recipeRepository.findByCuisineIgnoreCase(cuisine);
+    public Slice<Recipe> getRecipesByCuisine(String cuisine, int page, int size) {
+        return listRecipes(Query.query(Criteria.where("cuisineKey").is(RecipeKeys.key(cuisine))),
+                PageRequest.of(page, size, NEWEST_FIRST));
     }
 
-    public List<Recipe> searchRecipesByTitle(String title) {
-        return recipeRepository.findByTitleIgnoreCase(title);
+    public Slice<Recipe> searchRecipesByTitle(String title, int page, int size) {
+        return listRecipes(Query.query(Criteria.where("titleKey").is(RecipeKeys.key(title))),
+                PageRequest.of(page, size, NEWEST_FIRST));
     }
 
-    public List<Recipe> getRecipesByDietaryTag(String dietaryTag) {
-        return recipeRepository.findByDietaryPreferencesContainingIgnoreCase(dietaryTag);
+    public Slice<Recipe> getRecipesByDietaryTag(String dietaryTag, int page, int size) {
+        return listRecipes(Query.query(Criteria.where("dietaryKeys").is(RecipeKeys.key(dietaryTag))),
+                PageRequest.of(page, size, NEWEST_FIRST));
+    }
+
+    /**
+     * Recipes that take at most maxPrepTime, quickest first
+     */
+    public Slice<Recipe> getRecipesByMaxPrepTime(long maxPrepTime, int page, int size) {
+        return listRecipes(Query.query(Criteria.where("prepTime").lte(maxPrepTime)),
+                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "prepTime", "_id")));
     }
 
-    public List<Recipe> getAllRecipes() {
-        return recipeRepository.findAll();
+    /**
+     * All recipes, newest first or, with sortBy "favorites", most favorited first
+     */
+    public Slice<Recipe> getAllRecipes(String sortBy, int page, int size) {
+        Sort sort = "favorites".equalsIgnoreCase(sortBy)
+                ? Sort.by(Sort.Direction.DESC, "favoritesCount", "_id")
+                : NEWEST_FIRST;
+        return listRecipes(new Query(), PageRequest.of(page, size, sort));
+    }
+
+    /**
+     * One page of a list query on the read path, which tolerates bounded
+     * staleness, under the "list" deadline so that Mongo abandons it once the
+     * client would. The filter and sort must match one of the compound
+     * indexes on Recipe; one extra recipe is read to tell whether there is a
+     * next page, no count is run.
+     */
+    private Slice<Recipe> listRecipes(Query query, Pageable pageable) {
+        query.with(pageable).limit(pageable.getPageSize() + 1);
+        List<Recipe> recipes = new ArrayList<>(queryDeadlines.call("list",
+                deadline -> mongoRouter.reads().find(deadline.apply(query), Recipe.class)));
+        boolean hasMore = recipes.size() > pageable.getPageSize();
+        if (hasMore) {
+            recipes.remove(recipes.size() - 1);
+        }
+        return new SliceImpl<>(recipes, pageable, hasMore);
     }
 }
@@ -0,0 +1,308 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.dto.SimilarRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventSubscriber;
+import com.example.recipe.event.RecipeResyncEvent;
+import com.example.recipe.model.Recipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory "similar recipes" index over ingredient sets.
+ *
+ * Every recipe gets a MinHash signature of its normalized ingredientNames. The
+ * signature is cut into bands and each band is hashed into a bucket
+ * (locality-sensitive hashing), so recipes with a high Jaccard similarity share
+ * at least one bucket with high probability. A lookup only compares against the
+ * recipes in its own buckets and re-ranks them by exact Jaccard similarity.
+ *
+ * Kept up to date from the recipe event bus, and rebuilt from Mongo on startup
+ * and after a cluster resync. Changes to the index are serialized; a rebuild
+ * leaves recipes alone that events touched since it started, since the
+ * cursor may have read them before the change.
+ */
+@Service
+@Slf4j
+public class RecipeSimilarityService implements RecipeEventSubscriber {
+
+    private static final int MAX_CANDIDATES = 2000;
+    private static final double CUISINE_BOOST = 0.1;
+
+    private final MongoTemplate mongoTemplate;
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    // Ids changed by events while a rebuild runs, null otherwise
+    private volatile Set<String> touchedDuringRebuild;
+
+    public RecipeSimilarityService(MongoTemplate mongoTemplate,
+            @Value("${recipe.similar.bands:32}") int bands,
+            @Value("${recipe.similar.rows:4}") int rows) {
+        this.mongoTemplate = mongoTemplate;
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = new long[bands * rows];
+        Random random = new Random(0x5EEDL);
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    @Override
+    public String subscriberName() {
+        return "similarity";
+    }
+
+    @Override
+    public void onEvents(List<RecipeEvent> events) {
+        for (RecipeEvent event : events) {
+            if (event.type() == RecipeEvent.Type.SAVED || event.type() == RecipeEvent.Type.UNSAVED) {
+                continue;
+            }
+            synchronized (writeLock) {
+                Set<String> touched = touchedDuringRebuild;
+                if (touched != null) {
+                    touched.add(event.recipeId());
+                }
+                if (event.type() == RecipeEvent.Type.DELETED) {
+                    remove(event.recipeId());
+                } else {
+                    index(event.recipe());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from Mongo without holding up startup
+     */
+    @EventListener({ ApplicationReadyEvent.class, RecipeResyncEvent.class })
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "recipe-similarity-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Re-index every recipe, then drop entries of recipes that no longer exist.
+     * Recipes touched by events meanwhile keep what the events wrote.
+     */
+    synchronized void rebuild() {
+        Query query = new Query();
+        query.fields().include("title", "cuisine", "ingredientNames");
+        long started = System.currentTimeMillis();
+        Set<String> seen = new HashSet<>();
+        Set<String> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringRebuild = touched;
+        try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+            recipes.forEach(recipe -> {
+                seen.add(recipe.getId());
+                synchronized (writeLock) {
+                    if (!touched.contains(recipe.getId())) {
+                        index(recipe);
+                    }
+                }
+            });
+            for (String recipeId : new ArrayList<>(entries.keySet())) {
+                synchronized (writeLock) {
+                    if (!seen.contains(recipeId) && !touched.contains(recipeId)) {
+                        remove(recipeId);
+                    }
+                }
+            }
+            log.info("Similarity index rebuilt with {} recipes in {} ms", entries.size(),
+                    System.currentTimeMillis() - started);
+        } catch (RuntimeException ex) {
+            log.warn("Similarity index rebuild failed: {}", ex.getMessage());
+        } finally {
+            touchedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * (Re)compute the signature of a recipe and move it to its new buckets
+     */
+    public void index(Recipe recipe) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        Set<String> ingredients = normalize(recipe.getIngredientNames());
+        Entry entry = new Entry(recipe.getId(), recipe.getTitle(), recipe.getCuisine(), ingredients,
+                bandKeys(signature(ingredients)));
+
+        synchronized (writeLock) {
+            Entry previous = entries.put(recipe.getId(), entry);
+            if (previous != null) {
+                unbucket(previous);
+            }
+            for (long key : entry.bandKeys()) {
+                buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.recipeId());
+            }
+        }
+    }
+
+    public void remove(String recipeId) {
+        synchronized (writeLock) {
+            Entry previous = entries.remove(recipeId);
+            if (previous != null) {
+                unbucket(previous);
+            }
+        }
+    }
+
+    /**
+     * Recipes sharing an LSH bucket with the given one, ranked by exact Jaccard
+     * similarity of their ingredients (plus a small boost for the same cuisine)
+     */
+    public List<SimilarRecipe> findSimilar(String recipeId, int limit, boolean preferSameCuisine) {
+        Entry entry = entries.get(recipeId);
+        if (entry == null) {
+            return List.of();
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (long key : entry.bandKeys()) {
+            Set<String> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            for (String candidate : bucket) {
+                candidates.add(candidate);
+                if (candidates.size() >= MAX_CANDIDATES) {
+                    break;
+                }
+            }
+        }
+        candidates.remove(recipeId);
+
+        List<Ranked> ranked = new ArrayList<>();
+        for (String candidateId : candidates) {
+            Entry candidate = entries.get(candidateId);
+            if (candidate == null) {
+                continue;
+            }
+            double similarity = jaccard(entry.ingredients(), candidate.ingredients());
+            double rank = similarity;
+            if (preferSameCuisine && entry.cuisine() != null && entry.cuisine().equalsIgnoreCase(candidate.cuisine())) {
+                rank += CUISINE_BOOST;
+            }
+            ranked.add(new Ranked(
+                    new SimilarRecipe(candidate.recipeId(), candidate.title(), candidate.cuisine(), similarity), rank));
+        }
+        return ranked.stream()
+                .sorted(Comparator.comparingDouble(Ranked::rank).reversed())
+                .limit(limit)
+                .map(Ranked::recipe)
+                .toList();
+    }
+
+    public boolean contains(String recipeId) {
+        return entries.containsKey(recipeId);
+    }
+
+    private void unbucket(Entry entry) {
+        for (long key : entry.bandKeys()) {
+            buckets.computeIfPresent(key, (k, bucket) -> {
+                bucket.remove(entry.recipeId());
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    private long[] signature(Set<String> ingredients) {
+        if (ingredients.isEmpty()) {
+            return null;
+        }
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String ingredient : ingredients) {
+            long base = ingredient.hashCode() * 0x9E3779B97F4A7C15L;
+            for (int i = 0; i < seeds.length; i++) {
+                long hash = mix(base ^ seeds[i]);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private long[] bandKeys(long[] signature) {
+        if (signature == null) {
+            return new long[0];
+        }
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * 31 + signature[band * rows + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static Set<String> normalize(List<String> names) {
+        Set<String> normalized = new HashSet<>();
+        if (names != null) {
+            for (String name : names) {
+                if (name != null && !name.isBlank()) {
+                    normalized.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return normalized;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (String value : smaller) {
+            if (larger.contains(value)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Ranked(SimilarRecipe recipe, double rank) {
+    }
+
+    private record Entry(String recipeId, String title, String cuisine, Set<String> ingredients, long[] bandKeys) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.recipe.service;
+
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.dto.SearchResponse;
+
+/**
+ * Engine behind {@link RecipeService#advancedSearch(SearchRequest)}
+ */
+public interface SearchBackend {
+
+    SearchResponse search(SearchRequest searchRequest);
+}
@@ -0,0 +1,90 @@
+package com.example.recipe.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.ShoppingList;
+import com.example.recipe.dto.ShoppingListRequest;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Consolidated shopping list for a set of recipes.
+ *
+ * All recipes are read in one $in query that projects only the ingredients
+ * map, and the ingredients of recipes stored split in one more $in query on
+ * recipe_details. Raw documents are used, so the author DBRef is never
+ * resolved.
+ * Quantities are scaled by the requested servings and summed per normalized
+ * ingredient name.
+ */
+@Service
+@AllArgsConstructor
+public class ShoppingListService {
+
+    private final MongoRouter mongoRouter;
+
+    public ShoppingList build(ShoppingListRequest request) {
+        // The same recipe planned twice counts twice
+        Map<String, Double> servingsById = new LinkedHashMap<>();
+        for (ShoppingListRequest.Item item : request.getRecipes()) {
+            double servings = item.getServings() != null ? item.getServings() : 1.0;
+            servingsById.merge(item.getRecipeId(), servings, Double::sum);
+        }
+
+        List<Object> ids = new ArrayList<>();
+        for (String id : servingsById.keySet()) {
+            ids.add(ObjectId.isValid(id) ? new ObjectId(id) : id);
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("ingredients");
+
+        Map<String, Double> totals = new TreeMap<>();
+        List<String> missing = new ArrayList<>(servingsById.keySet());
+        List<Object> split = new ArrayList<>();
+        for (Document recipe : mongoRouter.reads().find(query, Document.class, "recipes")) {
+            missing.remove(recipe.get("_id").toString());
+            if (recipe.containsKey("ingredients")) {
+                addIngredients(totals, recipe, servingsById);
+            } else {
+                split.add(recipe.get("_id"));
+            }
+        }
+        // Recipes stored with their ingredients in recipe_details
+        if (!split.isEmpty()) {
+            Query details = Query.query(Criteria.where("_id").in(split));
+            details.fields().include("ingredients");
+            for (Document recipe : mongoRouter.reads().find(details, Document.class, "recipe_details")) {
+                addIngredients(totals, recipe, servingsById);
+            }
+        }
+        return new ShoppingList(totals, missing);
+    }
+
+    private static void addIngredients(Map<String, Double> totals, Document recipe, Map<String, Double> servingsById) {
+        if (!(recipe.get("ingredients") instanceof Document quantities)) {
+            return;
+        }
+        double servings = servingsById.get(recipe.get("_id").toString());
+        for (Map.Entry<String, Object> entry : quantities.entrySet()) {
+            if (entry.getValue() instanceof Number quantity) {
+                totals.merge(normalize(entry.getKey()), quantity.doubleValue() * servings, Double::sum);
+            }
+        }
+    }
+
+    static String normalize(String ingredient) {
+        return ingredient.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
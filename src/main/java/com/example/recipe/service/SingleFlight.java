@@ -0,0 +1,89 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent identical calls into one.
+ *
+ * The first caller for a key registers a future with putIfAbsent and runs the
+ * loader on its own thread; callers arriving while it runs wait for that future
+ * instead of issuing their own call. The entry is removed as soon as the call
+ * completes, so nothing is cached: a later call loads again. A failure is
+ * delivered to every waiting caller. A caller that waits longer than the
+ * timeout stops waiting and runs the loader itself, so one stuck call cannot
+ * hold up all readers of a key.
+ *
+ * Results are shared between callers and must not be mutated.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timeouts;
+
+    public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeoutNanos = timeout.toNanos();
+        this.leaders = Counter.builder("recipe.singleflight.calls").tag("name", name).tag("result", "executed")
+                .description("Calls that ran the loader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("recipe.singleflight.calls").tag("name", name).tag("result", "coalesced")
+                .description("Calls that shared the result of an identical in-flight call")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("recipe.singleflight.calls").tag("name", name).tag("result", "timeout")
+                .description("Calls that gave up waiting for an in-flight call and loaded themselves")
+                .register(meterRegistry);
+        Gauge.builder("recipe.singleflight.in-flight", inFlight, Map::size).tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            leaders.increment();
+            try {
+                V value = loader.get();
+                call.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                call.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        coalesced.increment();
+        try {
+            return existing.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an identical call", ex);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.recipe.service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.exception.BadRequestException;
+import com.example.recipe.model.RevokedToken;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Denylist of revoked JWTs, checked on every authenticated request.
+ *
+ * Revocations are stored in revoked_tokens, where a TTL index drops them once
+ * the token has expired. Each node keeps a Bloom filter of the revoked jti
+ * values, so the check for a token that was never revoked, which is nearly
+ * every request, is a few bit lookups without touching Mongo. Only Bloom
+ * positives are confirmed against the store; confirmed revocations are
+ * remembered until the next rebuild.
+ *
+ * Local revocations go into the filter immediately. Revocations made on other
+ * nodes are picked up by polling the store for recent entries every
+ * recipe.auth.revocation.poll-interval. A Bloom filter cannot forget, so it is
+ * rebuilt from the store every recipe.auth.revocation.rebuild-interval, which
+ * sheds expired tokens and resizes it to the current number of revocations.
+ *
+ * Until the first build has succeeded every check goes to the store.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    // Poll overlap, covers clock differences between nodes
+    private static final long CLOCK_SKEW_MILLIS = 5_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+    private long pollSince;
+    private final Map<String, Boolean> confirmed = new ConcurrentHashMap<>();
+
+    private final Counter bloomNegatives;
+    private final Counter revokedHits;
+    private final Counter falsePositives;
+    private final Counter storeChecks;
+
+    public TokenRevocationService(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${recipe.auth.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${recipe.auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.mongoTemplate = mongoTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+
+        String name = "recipe.auth.revocation.checks";
+        this.bloomNegatives = Counter.builder(name).tag("result", "bloom-negative").register(meterRegistry);
+        this.revokedHits = Counter.builder(name).tag("result", "revoked").register(meterRegistry);
+        this.falsePositives = Counter.builder(name).tag("result", "false-positive").register(meterRegistry);
+        this.storeChecks = Counter.builder(name).tag("result", "not-loaded").register(meterRegistry);
+        Gauge.builder("recipe.auth.revocation.filter.size", this, s -> s.filter.size())
+                .description("Ids added to the revocation Bloom filter since it was built")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the token with these claims has been revoked. Tokens issued
+     * before jti was added cannot be revoked individually and always pass.
+     */
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            return false;
+        }
+        if (!loaded) {
+            storeChecks.increment();
+            return inStore(jti);
+        }
+        if (!filter.mightContain(jti)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (confirmed.containsKey(jti)) {
+            revokedHits.increment();
+            return true;
+        }
+        if (inStore(jti)) {
+            confirmed.put(jti, Boolean.TRUE);
+            revokedHits.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    private boolean inStore(String jti) {
+        try {
+            return mongoTemplate.exists(Query.query(Criteria.where("_id").is(jti)), RevokedToken.class);
+        } catch (RuntimeException ex) {
+            // Fail closed: the filter says this token may be revoked
+            log.warn("Revocation lookup failed, rejecting token: {}", ex.getMessage());
+            return true;
+        }
+    }
+
+    public void revoke(Claims claims, String reason) {
+        String jti = claims.getId();
+        if (jti == null) {
+            throw new BadRequestException("This token has no id and cannot be revoked, it expires at "
+                    + claims.getExpiration());
+        }
+        mongoTemplate.save(new RevokedToken(jti, claims.getSubject(), claims.getExpiration(),
+                System.currentTimeMillis(), reason));
+        filter.add(jti);
+        confirmed.put(jti, Boolean.TRUE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread thread = new Thread(this::tryRebuild, "token-revocation-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${recipe.auth.revocation.rebuild-interval:PT1H}",
+            initialDelayString = "${recipe.auth.revocation.rebuild-interval:PT1H}")
+    public void tryRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Rebuilding the token revocation filter failed: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipe.auth.revocation.poll-interval:PT10S}")
+    public void poll() {
+        try {
+            if (!loaded) {
+                rebuild();
+            } else {
+                pollRecent();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Polling token revocations failed: {}", ex.getMessage());
+        }
+    }
+
+    synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Query live = Query.query(Criteria.where("expiresAt").gt(new Date(started)));
+        live.fields().include("_id");
+        long count = mongoTemplate.count(live, RevokedToken.class);
+        BloomFilter next = new BloomFilter(Math.max(expectedRevocations, count * 2), falsePositiveRate);
+        try (Stream<Document> ids = mongoTemplate.stream(live, Document.class,
+                mongoTemplate.getCollectionName(RevokedToken.class))) {
+            ids.forEach(doc -> next.add(doc.getString("_id")));
+        }
+
+        // Revocations saved on this node during the scan went into the old filter only
+        pollSince = started - CLOCK_SKEW_MILLIS;
+        filter = next;
+        confirmed.clear();
+        pollRecent();
+        loaded = true;
+        log.info("Loaded {} revoked tokens into the revocation filter in {} ms", next.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private synchronized void pollRecent() {
+        long now = System.currentTimeMillis();
+        Query recent = Query.query(Criteria.where("revokedAt").gte(pollSince));
+        recent.fields().include("_id");
+        BloomFilter current = filter;
+        for (Document doc : mongoTemplate.find(recent, Document.class,
+                mongoTemplate.getCollectionName(RevokedToken.class))) {
+            current.add(doc.getString("_id"));
+        }
+        pollSince = now - CLOCK_SKEW_MILLIS;
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings. Bits live in an AtomicLongArray so
+     * that adds and lookups need no lock; the k probe positions come from two
+     * 64-bit hashes of the characters (double hashing), without encoding the
+     * string to bytes.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLong size = new AtomicLong();
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+            this.words = new AtomicLongArray(words);
+            this.bits = words * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+
+        void add(String value) {
+            long h1 = hash(value, 0x9E3779B97F4A7C15L);
+            long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, old, old | mask));
+            }
+            size.incrementAndGet();
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value, 0x9E3779B97F4A7C15L);
+            long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long size() {
+            return size.get();
+        }
+
+        // FNV-1a over the chars, finished with the murmur3 64-bit mixer
+        private static long hash(String value, long seed) {
+            long h = seed;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
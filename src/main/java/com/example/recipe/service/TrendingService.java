@@ -0,0 +1,464 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.dto.TrendingRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.event.RecipeEventSubscriber;
+import com.example.recipe.model.Recipe;
+import com.example.recipe.model.TrendingScore;
+import com.mongodb.bulk.BulkWriteError;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Time-decayed popularity ("trending") scores, maintained incrementally in memory.
+ *
+ * Scores use forward decay: an event of weight w at time t adds
+ * w * e^(lambda * (t - landmark)) to a striped counter. Every score decays by the
+ * same factor, so the ranking can be read straight from the counters and only
+ * has to be divided by e^(lambda * (now - landmark)) for display. Each cuisine
+ * (plus "all") keeps a bounded top-K min-heap that is updated on every event,
+ * so reads never aggregate over raw events.
+ *
+ * Saves arrive through the recipe event bus, views are recorded directly.
+ * Deleted recipes are dropped from the boards, and a cuisine change moves the
+ * recipe to the board of its new cuisine.
+ * Every replica keeps its own counters, so the recipe_trending collection is
+ * only ever incremented: each flush adds the score this node gathered since its
+ * last successful flush, rescaled to a landmark that all nodes derive from the
+ * wall clock. Stored scores are loaded back on startup.
+ */
+@Service
+@Slf4j
+public class TrendingService implements RecipeEventSubscriber {
+
+    public static final String ALL_CUISINES = "all";
+
+    private final MongoTemplate mongoTemplate;
+    private final double decayPerMilli;
+    private final long rebaseAfterMillis;
+    private final int topK;
+    private final double saveWeight;
+    private final double viewWeight;
+    private final double pruneBelow;
+
+    private final Map<String, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<String, TopK> boards = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebaseLock = new ReentrantReadWriteLock();
+    private volatile long landmark = System.currentTimeMillis();
+    private volatile boolean loaded;
+
+    public TrendingService(MongoTemplate mongoTemplate,
+            @Value("${recipe.trending.half-life:PT6H}") Duration halfLife,
+            @Value("${recipe.trending.top-k:50}") int topK,
+            @Value("${recipe.trending.save-weight:5}") double saveWeight,
+            @Value("${recipe.trending.view-weight:1}") double viewWeight,
+            @Value("${recipe.trending.prune-below:0.01}") double pruneBelow) {
+        this.mongoTemplate = mongoTemplate;
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+        // Rebase long before e^(lambda * age) can overflow a double
+        this.rebaseAfterMillis = halfLife.toMillis() * 32;
+        this.topK = topK;
+        this.saveWeight = saveWeight;
+        this.viewWeight = viewWeight;
+        this.pruneBelow = pruneBelow;
+    }
+
+    @Override
+    public String subscriberName() {
+        return "trending";
+    }
+
+    @Override
+    public void onEvents(List<RecipeEvent> events) {
+        for (RecipeEvent event : events) {
+            switch (event.type()) {
+                // Remote saves were counted by the node that handled them
+                case SAVED -> {
+                    if (!event.remote()) {
+                        recordSave(event.recipe());
+                    }
+                }
+                case UPDATED -> moveCuisine(event.recipe(), !event.remote());
+                case DELETED -> forget(event.recipeId(), !event.remote());
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Move a recipe whose cuisine changed to the board of its new cuisine
+     */
+    private void moveCuisine(Recipe recipe, boolean store) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        Cell cell = cells.get(recipe.getId());
+        String cuisine = cuisineKey(recipe.getCuisine());
+        if (cell == null || cell.cuisine.equals(cuisine)) {
+            return;
+        }
+        rebaseLock.writeLock().lock();
+        try {
+            removeFromBoard(cell.cuisine, cell.recipeId);
+            cell.cuisine = cuisine;
+            offer(cell);
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+        if (store) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(recipe.getId())),
+                    new Update().set("cuisine", cuisine), TrendingScore.class);
+        }
+    }
+
+    /**
+     * Drop a deleted recipe, so it no longer takes a top-K slot
+     */
+    private void forget(String recipeId, boolean store) {
+        rebaseLock.writeLock().lock();
+        try {
+            Cell cell = cells.remove(recipeId);
+            if (cell != null) {
+                removeFromBoard(ALL_CUISINES, recipeId);
+                removeFromBoard(cell.cuisine, recipeId);
+            }
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+        if (store) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(recipeId)), TrendingScore.class);
+        }
+    }
+
+    public void recordSave(Recipe recipe) {
+        record(recipe, saveWeight);
+    }
+
+    public void recordView(Recipe recipe) {
+        record(recipe, viewWeight);
+    }
+
+    private void record(Recipe recipe, double weight) {
+        if (recipe == null || recipe.getId() == null) {
+            return;
+        }
+        rebaseLock.readLock().lock();
+        try {
+            Cell cell = cells.computeIfAbsent(recipe.getId(), id -> new Cell(id, cuisineKey(recipe.getCuisine())));
+            double value = weight * Math.exp(decayPerMilli * (System.currentTimeMillis() - landmark));
+            cell.score.add(value);
+            cell.pending.add(value);
+            offer(cell);
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top trending recipes, optionally restricted to one cuisine
+     */
+    public List<TrendingRecipe> getTrending(String cuisine, int limit) {
+        String key = (cuisine == null || cuisine.isBlank()) ? ALL_CUISINES : cuisineKey(cuisine);
+        TopK board = boards.get(key);
+        if (board == null) {
+            return List.of();
+        }
+
+        List<TopK.Entry> top = board.snapshot(limit);
+        double scale = Math.exp(-decayPerMilli * (System.currentTimeMillis() - landmark));
+
+        Query query = Query.query(Criteria.where("_id").in(top.stream().map(TopK.Entry::recipeId).toList()));
+        query.fields().include("title", "image", "cuisine", "favoritesCount");
+        Map<String, Recipe> recipes = new HashMap<>();
+        for (Recipe recipe : mongoTemplate.find(query, Recipe.class)) {
+            recipes.put(recipe.getId(), recipe);
+        }
+
+        List<TrendingRecipe> result = new ArrayList<>(top.size());
+        for (TopK.Entry entry : top) {
+            Recipe recipe = recipes.get(entry.recipeId());
+            if (recipe != null) {
+                result.add(new TrendingRecipe(recipe.getId(), recipe.getTitle(), recipe.getImage(),
+                        recipe.getCuisine(), recipe.getFavoritesCount(), entry.score() * scale));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Persist the score gathered since the last flush, drop scores that decayed
+     * to nothing and, once in a while, move the landmark forward.
+     */
+    @Scheduled(fixedDelayString = "${recipe.trending.flush-interval:PT30S}", initialDelayString = "${recipe.trending.flush-initial-delay:PT5S}")
+    public synchronized void flush() {
+        try {
+            if (!loaded) {
+                load();
+            }
+            if (System.currentTimeMillis() - landmark > rebaseAfterMillis) {
+                rebase();
+            }
+            persist();
+        } catch (RuntimeException ex) {
+            log.warn("Trending flush failed: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (loaded) {
+            flush();
+        }
+    }
+
+    private void load() {
+        Map<String, TrendingScore> stored = new HashMap<>();
+        for (TrendingScore score : mongoTemplate.findAll(TrendingScore.class)) {
+            stored.put(score.getId(), score);
+        }
+
+        rebaseLock.readLock().lock();
+        try {
+            for (TrendingScore score : stored.values()) {
+                double value = score.getScore() * Math.exp(decayPerMilli * (score.getLandmark() - landmark));
+                Cell cell = cells.computeIfAbsent(score.getId(), id -> new Cell(id, cuisineKey(score.getCuisine())));
+                cell.score.add(value);
+                offer(cell);
+            }
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+        loaded = true;
+        log.debug("Loaded {} trending scores", stored.size());
+    }
+
+    private void rebase() {
+        rebaseLock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            double factor = Math.exp(-decayPerMilli * (now - landmark));
+            for (Cell cell : cells.values()) {
+                double value = cell.score.sum() * factor;
+                cell.score.reset();
+                cell.score.add(value);
+                double pending = cell.pending.sum() * factor;
+                cell.pending.reset();
+                cell.pending.add(pending);
+            }
+            landmark = now;
+            boards.clear();
+            cells.values().forEach(this::offer);
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+    }
+
+    private void persist() {
+        long now = System.currentTimeMillis();
+        long shared = sharedLandmark(now);
+        rescaleStored(shared);
+
+        List<Cell> flushed = new ArrayList<>();
+        List<Double> taken = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendingScore.class);
+
+        rebaseLock.readLock().lock();
+        try {
+            double toShared = Math.exp(decayPerMilli * (landmark - shared));
+            for (Cell cell : cells.values()) {
+                // Subtract instead of sumThenReset so concurrent records are never lost
+                double delta = cell.pending.sum();
+                if (delta == 0) {
+                    continue;
+                }
+                cell.pending.add(-delta);
+                flushed.add(cell);
+                taken.add(delta);
+                // The landmark in the filter makes a write against a stale landmark fail instead of mixing scales
+                bulk.upsert(Query.query(Criteria.where("_id").is(cell.recipeId).and("landmark").is(shared)),
+                        new Update()
+                                .inc("score", delta * toShared)
+                                .set("cuisine", cell.cuisine)
+                                .set("updatedAt", now));
+            }
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+
+        if (!flushed.isEmpty()) {
+            try {
+                bulk.execute();
+            } catch (BulkOperationException ex) {
+                for (BulkWriteError error : ex.getErrors()) {
+                    flushed.get(error.getIndex()).pending.add(taken.get(error.getIndex()));
+                }
+                log.warn("{} of {} trending scores were not persisted, retrying on the next flush",
+                        ex.getErrors().size(), flushed.size());
+            } catch (RuntimeException ex) {
+                // Ambiguous failures may count a delta twice, which beats dropping it
+                for (int i = 0; i < flushed.size(); i++) {
+                    flushed.get(i).pending.add(taken.get(i));
+                }
+                throw ex;
+            }
+        }
+
+        prune(now, shared);
+    }
+
+    /**
+     * Landmark shared by all nodes: the start of the current rebase period.
+     */
+    private long sharedLandmark(long now) {
+        return now - Math.floorMod(now, rebaseAfterMillis);
+    }
+
+    /**
+     * Move stored scores still relative to an older landmark onto the shared one.
+     * Each document is matched by its old landmark, so it is rescaled exactly once
+     * even when several nodes do this at the same time.
+     */
+    private void rescaleStored(long shared) {
+        List<Long> stale = mongoTemplate.findDistinct(Query.query(Criteria.where("landmark").lt(shared)),
+                "landmark", TrendingScore.class, Long.class);
+        for (Long old : stale) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("landmark").is(old)),
+                    new Update()
+                            .multiply("score", Math.exp(decayPerMilli * (old - shared)))
+                            .set("landmark", shared),
+                    TrendingScore.class);
+        }
+    }
+
+    private void prune(long now, long shared) {
+        mongoTemplate.remove(Query.query(Criteria.where("landmark").is(shared)
+                .and("score").lt(pruneBelow * Math.exp(decayPerMilli * (now - shared)))), TrendingScore.class);
+
+        // Under the write lock, so no record() adds to a cell while it is removed
+        rebaseLock.writeLock().lock();
+        try {
+            double scale = Math.exp(-decayPerMilli * (now - landmark));
+            for (Cell cell : cells.values()) {
+                if (cell.score.sum() * scale < pruneBelow && cell.pending.sum() == 0) {
+                    cells.remove(cell.recipeId);
+                    removeFromBoard(ALL_CUISINES, cell.recipeId);
+                    removeFromBoard(cell.cuisine, cell.recipeId);
+                }
+            }
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromBoard(String board, String recipeId) {
+        TopK topK = boards.get(board);
+        if (topK != null) {
+            topK.remove(recipeId);
+        }
+    }
+
+    private void offer(Cell cell) {
+        double score = cell.score.sum();
+        boards.computeIfAbsent(ALL_CUISINES, key -> new TopK(topK)).offer(cell.recipeId, score);
+        boards.computeIfAbsent(cell.cuisine, key -> new TopK(topK)).offer(cell.recipeId, score);
+    }
+
+    private static String cuisineKey(String cuisine) {
+        return cuisine == null || cuisine.isBlank() ? "unknown" : cuisine.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Cell {
+        private final String recipeId;
+        private volatile String cuisine;
+        private final DoubleAdder score = new DoubleAdder();
+        // Score gathered since the last successful flush, relative to the local landmark
+        private final DoubleAdder pending = new DoubleAdder();
+
+        private Cell(String recipeId, String cuisine) {
+            this.recipeId = recipeId;
+            this.cuisine = cuisine;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the K highest scores. Forward-decayed scores only grow,
+     * so a recipe that is not in the heap can only enter it by beating the minimum.
+     */
+    static final class TopK {
+
+        record Entry(String recipeId, double score) {
+        }
+
+        private final int capacity;
+        private final PriorityQueue<Entry> heap;
+        private final Map<String, Entry> members = new ConcurrentHashMap<>();
+        private volatile double floor = Double.NEGATIVE_INFINITY;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, Comparator.comparingDouble(Entry::score));
+        }
+
+        void offer(String recipeId, double score) {
+            // Cheap rejection without taking the lock
+            if (score <= floor && !members.containsKey(recipeId)) {
+                return;
+            }
+            synchronized (this) {
+                Entry current = members.get(recipeId);
+                if (current != null) {
+                    heap.remove(current);
+                } else if (heap.size() >= capacity) {
+                    if (score <= heap.peek().score()) {
+                        return;
+                    }
+                    members.remove(heap.poll().recipeId());
+                }
+                Entry entry = new Entry(recipeId, score);
+                heap.add(entry);
+                members.put(recipeId, entry);
+                floor = heap.size() >= capacity ? heap.peek().score() : Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        synchronized void remove(String recipeId) {
+            Entry current = members.remove(recipeId);
+            if (current != null) {
+                heap.remove(current);
+                floor = heap.size() >= capacity ? heap.peek().score() : Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        synchronized List<Entry> snapshot(int limit) {
+            return heap.stream()
+                    .sorted(Comparator.comparingDouble(Entry::score).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+}
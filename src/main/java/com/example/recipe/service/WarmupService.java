@@ -0,0 +1,234 @@
+package com.example.recipe.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.recipe.config.StartupTasksHealthIndicator;
+import com.example.recipe.dto.SearchRequest;
+import com.example.recipe.model.WarmupProfile;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup warm-up of the search and fetch paths.
+ *
+ * While serving, the controller reports every search shape and fetched recipe
+ * id; the most frequent ones are persisted periodically to warmup_profile. On
+ * the next start the profile is replayed through {@link RecipeService} from a
+ * few background threads, so the JIT compiles the hot paths, the Mongo pool
+ * fills up and in-process indexes are touched before real traffic arrives.
+ * The "warmup" startup task keeps the readiness probe OUT_OF_SERVICE until
+ * the replay finishes or the timeout expires.
+ *
+ * Warm-up calls go straight to the service, so they are not recorded in the
+ * profile and do not count as views.
+ */
+@Service
+@Slf4j
+public class WarmupService {
+
+    static final String TASK = "warmup";
+
+    private final RecipeService recipeService;
+    private final MongoTemplate mongoTemplate;
+    private final StartupTasksHealthIndicator startupTasks;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final int iterations;
+    private final int threads;
+    private final int maxSearches;
+    private final int maxRecipes;
+    private final int maxTracked;
+
+    private final Map<SearchRequest, LongAdder> searchCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> fetchCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    public WarmupService(RecipeService recipeService, MongoTemplate mongoTemplate,
+            StartupTasksHealthIndicator startupTasks,
+            @Value("${recipe.warmup.enabled:true}") boolean enabled,
+            @Value("${recipe.warmup.timeout:PT60S}") Duration timeout,
+            @Value("${recipe.warmup.iterations:200}") int iterations,
+            @Value("${recipe.warmup.threads:4}") int threads,
+            @Value("${recipe.warmup.max-searches:50}") int maxSearches,
+            @Value("${recipe.warmup.max-recipes:200}") int maxRecipes,
+            @Value("${recipe.warmup.max-tracked:5000}") int maxTracked) {
+        this.recipeService = recipeService;
+        this.mongoTemplate = mongoTemplate;
+        this.startupTasks = startupTasks;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.iterations = iterations;
+        this.threads = Math.max(1, threads);
+        this.maxSearches = maxSearches;
+        this.maxRecipes = maxRecipes;
+        this.maxTracked = maxTracked;
+        if (enabled) {
+            startupTasks.begin(TASK);
+        }
+    }
+
+    /**
+     * Count a search for the profile; paging is ignored so that every page of a
+     * filter combination warms the same query shape
+     */
+    public void recordSearch(SearchRequest request) {
+        SearchRequest shape = new SearchRequest();
+        shape.setSearchText(request.getSearchText());
+        shape.setIngredient(request.getIngredient());
+        shape.setCuisine(request.getCuisine());
+        shape.setDietaryPreference(request.getDietaryPreference());
+        shape.setMaxPrepTime(request.getMaxPrepTime());
+        shape.setSortBy(request.getSortBy());
+        shape.setLimit(request.getLimit());
+        count(searchCounts, shape);
+    }
+
+    public void recordFetch(String recipeId) {
+        count(fetchCounts, recipeId);
+    }
+
+    private <K> void count(Map<K, LongAdder> counts, K key) {
+        LongAdder counter = counts.get(key);
+        if (counter == null) {
+            // Long tail beyond maxTracked is irrelevant for warm-up
+            if (counts.size() >= maxTracked) {
+                return;
+            }
+            counter = counts.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+        recorded.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${recipe.warmup.save-interval:PT5M}",
+            initialDelayString = "${recipe.warmup.save-interval:PT5M}")
+    public void saveProfile() {
+        if (!recorded.getAndSet(false)) {
+            return;
+        }
+        WarmupProfile profile = new WarmupProfile();
+        profile.setSearches(top(searchCounts, maxSearches));
+        profile.setRecipeIds(top(fetchCounts, maxRecipes));
+        profile.setUpdatedAt(System.currentTimeMillis());
+        try {
+            mongoTemplate.save(profile);
+        } catch (RuntimeException ex) {
+            recorded.set(true);
+            log.warn("Saving warm-up profile failed: {}", ex.getMessage());
+        }
+    }
+
+    private static <K> List<K> top(Map<K, LongAdder> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<K, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveProfile();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "recipe-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void warmUp() {
+        long started = System.currentTimeMillis();
+        long deadline = started + timeout.toMillis();
+        WarmupProfile profile;
+        try {
+            profile = mongoTemplate.findById(WarmupProfile.CURRENT, WarmupProfile.class);
+        } catch (RuntimeException ex) {
+            startupTasks.finish(TASK, StartupTasksHealthIndicator.State.FAILED);
+            log.warn("Loading warm-up profile failed: {}", ex.getMessage());
+            return;
+        }
+        List<SearchRequest> searches = new ArrayList<>();
+        List<String> recipeIds = List.of();
+        if (profile != null) {
+            searches.addAll(profile.getSearches());
+            recipeIds = profile.getRecipeIds();
+        }
+        if (searches.isEmpty()) {
+            // No previous run: at least warm the unfiltered search
+            searches.add(new SearchRequest());
+        }
+
+        LongAdder calls = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            List<String> ids = recipeIds;
+            Thread worker = new Thread(() -> {
+                try {
+                    replay(searches, ids, offset, deadline, calls, failures);
+                } finally {
+                    done.countDown();
+                }
+            }, "recipe-warmup-" + t);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        StartupTasksHealthIndicator.State state;
+        try {
+            boolean finished = done.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            state = finished ? StartupTasksHealthIndicator.State.DONE : StartupTasksHealthIndicator.State.TIMED_OUT;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            state = StartupTasksHealthIndicator.State.TIMED_OUT;
+        }
+        startupTasks.finish(TASK, state);
+        log.info("Warm-up {} after {} ms: {} calls, {} failed ({} search shapes, {} recipes)", state,
+                System.currentTimeMillis() - started, calls.sum(), failures.sum(), searches.size(),
+                recipeIds.size());
+    }
+
+    /**
+     * Each worker runs its share of the iterations, walking the profile from a
+     * different offset so the threads do not issue the same call in lockstep
+     */
+    private void replay(List<SearchRequest> searches, List<String> recipeIds, int offset, long deadline,
+            LongAdder calls, LongAdder failures) {
+        int perThread = Math.max(1, iterations / threads);
+        for (int i = 0; i < perThread && System.currentTimeMillis() < deadline; i++) {
+            int n = offset + i * threads;
+            try {
+                recipeService.advancedSearch(searches.get(n % searches.size()));
+                if (!recipeIds.isEmpty()) {
+                    recipeService.getRecipeById(recipeIds.get(n % recipeIds.size()));
+                }
+            } catch (RuntimeException ex) {
+                failures.increment();
+            }
+            calls.increment();
+        }
+    }
+}
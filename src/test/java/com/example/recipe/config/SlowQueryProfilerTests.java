@@ -0,0 +1,86 @@
+package com.example.recipe.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+class SlowQueryProfilerTests {
+
+	private static final ConnectionDescription CONNECTION = new ConnectionDescription(
+			new ServerId(new ClusterId(), new ServerAddress()));
+
+	@SuppressWarnings("unchecked")
+	private final SlowQueryProfiler profiler = new SlowQueryProfiler(mock(ObjectProvider.class), true,
+			Duration.ofMillis(100), 10, 10, Integer.MAX_VALUE, Duration.ofMinutes(10));
+
+	@Test
+	void normalizeReplacesValuesAndKeepsOperators() {
+		assertEquals(shape("{'cuisine': '?', 'prepTime': {'$lte': '?'}, 'favoritesCount': {'$gte': '?', '$lt': '?'}}"),
+				SlowQueryProfiler.normalize(shape(
+						"{'cuisine': 'Thai', 'prepTime': {'$lte': 30}, 'favoritesCount': {'$gte': 5, '$lt': 100}}")));
+	}
+
+	@Test
+	void normalizeCollapsesScalarArraysToOnePlaceholder() {
+		assertEquals(shape("{'dietaryKeys': {'$all': '?'}, '_id': {'$in': '?'}}"),
+				SlowQueryProfiler.normalize(shape(
+						"{'dietaryKeys': {'$all': ['vegan', 'gluten-free']}, '_id': {'$in': ['a', 'b', 'c']}}")));
+		assertEquals(shape("{'_id': {'$in': '?'}}"),
+				SlowQueryProfiler.normalize(shape("{'_id': {'$in': []}}")));
+	}
+
+	@Test
+	void normalizeKeepsOneEntryPerDistinctShapeInDocumentArrays() {
+		assertEquals(shape("{'$or': [{'titleKey': '?'}, {'cuisineKey': '?'}]}"),
+				SlowQueryProfiler.normalize(shape(
+						"{'$or': [{'titleKey': 'pad thai'}, {'cuisineKey': 'thai'}, {'titleKey': 'curry'}]}")));
+		assertEquals(shape("{'pipeline': [{'$match': {'cuisine': '?'}}, {'$sort': {'favoritesCount': '?'}}, {'$limit': '?'}]}"),
+				SlowQueryProfiler.normalize(shape(
+						"{'pipeline': [{'$match': {'cuisine': 'Thai'}}, {'$sort': {'favoritesCount': -1}}, {'$limit': 20}]}")));
+	}
+
+	@Test
+	void slowCommandsOfTheSameShapeAreAggregated() {
+		run(1, "{'find': 'recipes', 'filter': {'cuisine': 'Thai'}, 'limit': 20, '$db': 'recipes'}", 150);
+		run(2, "{'find': 'recipes', 'filter': {'cuisine': 'Italian'}, 'limit': 5, '$db': 'recipes'}", 250);
+		run(3, "{'find': 'recipes', 'filter': {'title': 'Pad Thai'}, '$db': 'recipes'}", 50);
+
+		List<SlowQueryProfiler.ShapeStats> shapes = profiler.shapes();
+		assertEquals(1, shapes.size());
+		SlowQueryProfiler.ShapeStats stats = shapes.get(0);
+		assertEquals("recipes", stats.collection());
+		assertEquals("find", stats.command());
+		assertEquals(shape("{'filter': {'cuisine': '?'}}").toJson(), stats.shape());
+		assertEquals(2, stats.count());
+		assertEquals(400, stats.totalMillis());
+		assertEquals(250, stats.maxMillis());
+		assertEquals(List.of(250L, 150L), profiler.recent().stream().map(SlowQueryProfiler.SlowQuery::millis).toList());
+	}
+
+	private void run(int requestId, String json, long millis) {
+		BsonDocument command = BsonDocument.parse(json);
+		String name = command.getFirstKey();
+		profiler.commandStarted(new CommandStartedEvent(null, 1, requestId, CONNECTION, "recipes",
+				name, command));
+		profiler.commandSucceeded(new CommandSucceededEvent(null, 1, requestId, CONNECTION,
+				"recipes", name, new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(millis)));
+	}
+
+	private static BsonDocument shape(String json) {
+		return BsonDocument.parse(json);
+	}
+}
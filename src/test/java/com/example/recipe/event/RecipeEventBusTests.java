@@ -0,0 +1,87 @@
+package com.example.recipe.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipe.model.Recipe;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RecipeEventBusTests {
+
+	@Test
+	void deliversEveryEventInOrder() throws InterruptedException {
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(10_000);
+		RecipeEventSubscriber subscriber = subscriber(events -> events.forEach(event -> {
+			received.add(event.recipeId());
+			done.countDown();
+		}));
+
+		RecipeEventBus bus = new RecipeEventBus(List.of(subscriber), new SimpleMeterRegistry(), 64, 16,
+				OverflowPolicy.BLOCK, Duration.ofSeconds(5));
+		bus.start();
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(bus.publish(event(String.valueOf(i))));
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals(String.valueOf(i), received.get(i));
+		}
+		bus.stop();
+	}
+
+	@Test
+	void dropsWhenTheSlowestSubscriberIsARingBehind() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		RecipeEventSubscriber stuck = subscriber(events -> {
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		RecipeEventBus bus = new RecipeEventBus(List.of(stuck), new SimpleMeterRegistry(), 8, 1,
+				OverflowPolicy.DROP, Duration.ZERO);
+		bus.start();
+		boolean dropped = false;
+		for (int i = 0; i < 32 && !dropped; i++) {
+			dropped = !bus.publish(event(String.valueOf(i)));
+		}
+		assertTrue(dropped);
+
+		release.countDown();
+		bus.stop();
+	}
+
+	private static RecipeEvent event(String recipeId) {
+		Recipe recipe = new Recipe();
+		recipe.setId(recipeId);
+		return RecipeEvent.of(RecipeEvent.Type.SAVED, recipe, "user");
+	}
+
+	private static RecipeEventSubscriber subscriber(Consumer<List<RecipeEvent>> handler) {
+		return new RecipeEventSubscriber() {
+			@Override
+			public String subscriberName() {
+				return "test";
+			}
+
+			@Override
+			public void onEvents(List<RecipeEvent> events) {
+				handler.accept(events);
+			}
+		};
+	}
+}
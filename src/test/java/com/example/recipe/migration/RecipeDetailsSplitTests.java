@@ -0,0 +1,85 @@
+package com.example.recipe.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.example.recipe.model.RecipeDetails;
+
+class RecipeDetailsSplitTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulk = mock(BulkOperations.class);
+	private final RecipeDetailsSplit split = new RecipeDetailsSplit(mongoTemplate);
+
+	@Test
+	void splitTurnedOffAndOnAgainKeepsTheStepsEditedMeanwhile() {
+		ObjectId id = new ObjectId();
+		// Saved with the split on at 1000, then edited with the split off at 2000
+		details(new RecipeDetails(id.toHexString(), Map.of("flour", 200), "old steps", 1000L));
+		Document recipe = recipe(id, "new steps", 2000L);
+
+		split.beforeBatch(List.of(recipe));
+
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(bulk).updateOne(any(Query.class), update.capture());
+		Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+		assertEquals("new steps", set.get("steps"));
+		assertEquals(new Document("flour", 250), set.get("ingredients"));
+		verify(bulk).execute();
+		// Only after the details are written are the inline fields removed
+		assertEquals(new Document("$unset", new Document("steps", 1).append("ingredients", 1)),
+				split.migrate(recipe).getUpdateObject());
+	}
+
+	@Test
+	void keepsDetailsWrittenAfterTheRecipe() {
+		ObjectId id = new ObjectId();
+		details(new RecipeDetails(id.toHexString(), Map.of("flour", 300), "newer steps", 3000L));
+
+		split.beforeBatch(List.of(recipe(id, "new steps", 2000L)));
+
+		verify(bulk, never()).updateOne(any(Query.class), any(Update.class));
+		verify(bulk, never()).execute();
+	}
+
+	@Test
+	void insertsMissingDetailsWithoutOverwriting() {
+		details();
+
+		split.beforeBatch(List.of(recipe(new ObjectId(), "steps", 2000L)));
+
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		verify(bulk).upsert(any(Query.class), update.capture());
+		assertEquals("steps", update.getValue().getUpdateObject().get("$setOnInsert", Document.class).get("steps"));
+		verify(bulk).execute();
+	}
+
+	private void details(RecipeDetails... existing) {
+		when(mongoTemplate.find(any(Query.class), eq(RecipeDetails.class))).thenReturn(List.of(existing));
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecipeDetails.class)).thenReturn(bulk);
+	}
+
+	private static Document recipe(ObjectId id, String steps, long updatedAt) {
+		return new Document("_id", id)
+				.append("steps", steps)
+				.append("ingredients", new Document("flour", 250))
+				.append("updatedAt", updatedAt);
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.recipe.model.Recipe;
+
+class CatalogSnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void writeAndOpenRoundTripsEveryField() throws IOException {
+		Path file = dir.resolve("catalog.snapshot");
+		Document full = new Document("_id", "a1")
+				.append("title", "Pad Thai")
+				.append("image", "pad-thai.jpg")
+				.append("cuisine", "Thai")
+				.append("prepTime", 25L)
+				.append("favoritesCount", 7)
+				.append("viewsCount", 1200L)
+				.append("createdAt", 1_700_000_000_000L)
+				.append("dietaryPreferences", List.of("vegetarian", "gluten-free"))
+				.append("ingredientNames", List.of(" Rice Noodles", "tofu"));
+		Document sparse = new Document("_id", "b2")
+				.append("title", "")
+				.append("image", null);
+
+		assertEquals(2, CatalogSnapshot.Snapshot.write(file, List.of(full, sparse).iterator(), 42L));
+		CatalogSnapshot.Snapshot snapshot = CatalogSnapshot.Snapshot.open(file);
+
+		CatalogSnapshot.Entry entry = snapshot.read(snapshot.offsetOf("a1"));
+		assertEquals("a1", entry.id());
+		assertEquals("Pad Thai", entry.title());
+		assertEquals("pad-thai.jpg", entry.image());
+		assertEquals("Thai", entry.cuisine());
+		assertEquals(25L, entry.prepTime());
+		assertEquals(7, entry.favoritesCount());
+		assertEquals(1200L, entry.viewsCount());
+		assertEquals(1_700_000_000_000L, entry.createdAt());
+		assertEquals(List.of("vegetarian", "gluten-free"), entry.diets());
+		assertEquals(List.of("rice noodles", "tofu"), entry.ingredients());
+
+		Recipe recipe = snapshot.read(snapshot.offsetOf("b2")).toRecipe();
+		assertEquals("b2", recipe.getId());
+		assertNull(recipe.getTitle());
+		assertNull(recipe.getImage());
+		assertNull(recipe.getCuisine());
+		assertNull(recipe.getPrepTime());
+		assertNull(recipe.getCreatedAt());
+		assertEquals(0, recipe.getFavoritesCount());
+		assertEquals(List.of(), recipe.getIngredientNames());
+	}
+
+	@Test
+	void offsetOfFindsEveryIdAndNothingElse() throws IOException {
+		Path file = dir.resolve("catalog.snapshot");
+		List<Document> recipes = new ArrayList<>();
+		// Written in an order unrelated to the id order
+		for (int i = 0; i < 500; i++) {
+			recipes.add(new Document("_id", Integer.toHexString(i * 7919 % 500 + 1000)).append("title", "r" + i));
+		}
+		CatalogSnapshot.Snapshot.write(file, recipes.iterator(), 0L);
+		CatalogSnapshot.Snapshot snapshot = CatalogSnapshot.Snapshot.open(file);
+
+		for (Document recipe : recipes) {
+			String id = recipe.getString("_id");
+			assertEquals(id, snapshot.read(snapshot.offsetOf(id)).id());
+		}
+		assertEquals(-1, snapshot.offsetOf("0"));
+		assertEquals(-1, snapshot.offsetOf("zzz"));
+	}
+
+	@Test
+	void truncatedFileIsRejected() throws IOException {
+		Path file = dir.resolve("catalog.snapshot");
+		CatalogSnapshot.Snapshot.write(file,
+				List.of(new Document("_id", "a1").append("title", "Pad Thai")).iterator(), 0L);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		assertThrows(IOException.class, () -> CatalogSnapshot.Snapshot.open(file));
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.recipe.model.Recipe;
+
+class RecipeFingerprintsTests {
+
+	private static final String STEPS = "Whisk the eggs with the milk and sugar. Fold in the flour and a pinch of salt. "
+			+ "Melt the butter in a pan, pour in a ladle of batter and cook until golden on both sides. "
+			+ "Serve warm with lemon and more sugar.";
+
+	@Test
+	void fingerprintIsDeterministicAndIgnoresCaseAndPunctuation() {
+		Recipe recipe = recipe("Classic Crepes", STEPS, "flour", "eggs", "milk", "butter", "sugar", "salt");
+		Recipe reformatted = recipe("classic crepes!", STEPS.toUpperCase().replace(".", " ;"),
+				" Flour", "EGGS", "milk ", "butter", "sugar", "salt");
+
+		assertEquals(RecipeFingerprints.simHash(recipe), RecipeFingerprints.simHash(recipe));
+		assertEquals(RecipeFingerprints.simHash(recipe), RecipeFingerprints.simHash(reformatted));
+	}
+
+	@Test
+	void smallEditsStayCloseAndOtherRecipesDoNot() {
+		long original = RecipeFingerprints.simHash(
+				recipe("Classic Crepes", STEPS, "flour", "eggs", "milk", "butter", "sugar", "salt"));
+		long edited = RecipeFingerprints.simHash(
+				recipe("Classic Crepes", STEPS.replace("lemon", "lime"), "flour", "eggs", "milk", "butter", "sugar",
+						"salt"));
+		long other = RecipeFingerprints.simHash(recipe("Pad Thai",
+				"Soak the noodles. Stir fry the tofu with garlic, add the noodles, sauce and sprouts. "
+						+ "Top with crushed peanuts and lime.",
+				"rice noodles", "tofu", "garlic", "bean sprouts", "peanuts", "lime", "fish sauce"));
+
+		assertTrue(RecipeFingerprints.distance(original, edited) <= 3,
+				"distance " + RecipeFingerprints.distance(original, edited));
+		assertTrue(RecipeFingerprints.distance(original, other) > 3,
+				"distance " + RecipeFingerprints.distance(original, other));
+	}
+
+	@Test
+	void bandsSplitTheFingerprintInOrder() {
+		assertEquals(List.of("0:cdef", "1:89ab", "2:4567", "3:123"), RecipeFingerprints.bands(0x0123_4567_89ab_cdefL));
+		assertEquals(List.of("0:0", "1:0", "2:0", "3:ffff"), RecipeFingerprints.bands(0xffff_0000_0000_0000L));
+	}
+
+	@Test
+	void fingerprintsWithinThreeBitsAlwaysShareABand() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long simHash = random.nextLong();
+			long flipped = simHash;
+			for (int flip = 0; flip < RecipeFingerprints.BANDS - 1; flip++) {
+				flipped ^= 1L << random.nextInt(64);
+			}
+
+			Set<String> shared = new HashSet<>(RecipeFingerprints.bands(simHash));
+			shared.retainAll(RecipeFingerprints.bands(flipped));
+			assertFalse(shared.isEmpty(), Long.toHexString(simHash) + " / " + Long.toHexString(flipped));
+		}
+	}
+
+	@Test
+	void applyStoresTheFingerprintAndItsBands() {
+		Recipe recipe = recipe("Classic Crepes", STEPS, "flour", "eggs");
+
+		RecipeFingerprints.apply(recipe);
+
+		assertEquals(RecipeFingerprints.simHash(recipe), recipe.getSimHash());
+		assertEquals(RecipeFingerprints.bands(recipe.getSimHash()), recipe.getSimHashBands());
+	}
+
+	private static Recipe recipe(String title, String steps, String... ingredients) {
+		Recipe recipe = new Recipe();
+		recipe.setTitle(title);
+		recipe.setSteps(steps);
+		recipe.setIngredientNames(new ArrayList<>(List.of(ingredients)));
+		return recipe;
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.recipe.dto.SimilarRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.model.Recipe;
+
+class RecipeSimilarityServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final RecipeSimilarityService service = new RecipeSimilarityService(mongoTemplate, 32, 4);
+
+	@Test
+	void ranksCandidatesByExactJaccardSimilarity() {
+		service.index(recipe("a", "Italian", "flour", "eggs", "milk", "butter", "sugar", "salt"));
+		// 5 of 7 ingredients shared
+		service.index(recipe("b", "French", "flour", "eggs", "milk", "butter", "sugar", "vanilla"));
+		// 4 of 8 ingredients shared
+		service.index(recipe("c", "French", "flour", "eggs", "milk", "butter", "yeast", "water"));
+		service.index(recipe("d", "Thai", "rice noodles", "tofu", "peanuts", "lime", "fish sauce", "chili"));
+
+		List<SimilarRecipe> similar = service.findSimilar("a", 10, false);
+
+		assertEquals(List.of("b", "c"), similar.stream().map(SimilarRecipe::getId).toList());
+		assertEquals(5.0 / 7, similar.get(0).getSimilarity(), 1e-9);
+		assertEquals(4.0 / 8, similar.get(1).getSimilarity(), 1e-9);
+	}
+
+	@Test
+	void ingredientNamesAreComparedNormalized() {
+		service.index(recipe("a", null, "Flour", " eggs ", "MILK"));
+		service.index(recipe("b", null, "flour", "Eggs", "milk", ""));
+
+		List<SimilarRecipe> similar = service.findSimilar("a", 10, false);
+
+		assertEquals(1, similar.size());
+		assertEquals(1.0, similar.get(0).getSimilarity(), 1e-9);
+	}
+
+	@Test
+	void sameCuisineIsPreferredOnlyWhenAsked() {
+		service.index(recipe("a", "Italian", "flour", "eggs", "milk", "butter", "sugar", "salt"));
+		service.index(recipe("b", "French", "flour", "eggs", "milk", "butter", "sugar", "vanilla"));
+		service.index(recipe("c", "italian", "flour", "eggs", "milk", "butter", "sugar", "yeast", "water"));
+
+		assertEquals(List.of("b", "c"), ids(service.findSimilar("a", 10, false)));
+		assertEquals(List.of("c", "b"), ids(service.findSimilar("a", 10, true)));
+		assertEquals(List.of("c"), ids(service.findSimilar("a", 1, true)));
+	}
+
+	@Test
+	void reindexingMovesTheRecipeToItsNewBuckets() {
+		service.index(recipe("a", null, "flour", "eggs", "milk", "butter"));
+		service.index(recipe("b", null, "flour", "eggs", "milk", "butter"));
+		assertEquals(List.of("b"), ids(service.findSimilar("a", 10, false)));
+
+		service.index(recipe("b", null, "rice", "tofu", "lime", "chili"));
+		assertEquals(List.of(), service.findSimilar("a", 10, false));
+
+		service.remove("b");
+		assertFalse(service.contains("b"));
+		assertEquals(List.of(), service.findSimilar("b", 10, false));
+	}
+
+	@Test
+	void recipesWithoutIngredientsMatchNothing() {
+		service.index(recipe("a", null));
+		service.index(recipe("b", null));
+
+		assertTrue(service.contains("a"));
+		assertEquals(List.of(), service.findSimilar("a", 10, false));
+	}
+
+	@Test
+	void rebuildKeepsWhatEventsWroteWhileItRan() {
+		Recipe stale = recipe("a", null, "flour", "eggs", "milk", "butter");
+		service.index(recipe("gone", null, "flour", "eggs", "milk", "butter"));
+		when(mongoTemplate.stream(any(Query.class), eq(Recipe.class))).thenAnswer(invocation -> {
+			// Events arriving after the cursor read the recipes
+			service.onEvents(List.of(
+					RecipeEvent.of(RecipeEvent.Type.UPDATED, recipe("a", null, "rice", "tofu", "lime"), "u1"),
+					RecipeEvent.of(RecipeEvent.Type.CREATED, recipe("new", null, "rice", "tofu", "lime"), "u1")));
+			return Stream.of(stale);
+		});
+
+		service.rebuild();
+
+		assertFalse(service.contains("gone"));
+		assertTrue(service.contains("new"));
+		assertEquals(List.of("new"), ids(service.findSimilar("a", 10, false)));
+	}
+
+	private static List<String> ids(List<SimilarRecipe> similar) {
+		return similar.stream().map(SimilarRecipe::getId).toList();
+	}
+
+	private static Recipe recipe(String id, String cuisine, String... ingredients) {
+		Recipe recipe = new Recipe();
+		recipe.setId(id);
+		recipe.setTitle("Recipe " + id);
+		recipe.setCuisine(cuisine);
+		recipe.setIngredientNames(List.of(ingredients));
+		return recipe;
+	}
+}
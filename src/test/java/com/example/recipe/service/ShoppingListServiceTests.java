@@ -0,0 +1,82 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.recipe.config.MongoRouter;
+import com.example.recipe.dto.ShoppingList;
+import com.example.recipe.dto.ShoppingListRequest;
+
+class ShoppingListServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ShoppingListService service = new ShoppingListService(new MongoRouter(mongoTemplate));
+
+	@Test
+	void normalizeTrimsLowercasesAndCollapsesWhitespace() {
+		assertEquals("olive oil", ShoppingListService.normalize("  Olive \t  OIL "));
+		assertEquals("crème fraîche", ShoppingListService.normalize("Crème Fraîche"));
+	}
+
+	@Test
+	void quantitiesAreScaledByServingsAndSummedPerIngredient() {
+		ObjectId crepes = new ObjectId();
+		ObjectId pancakes = new ObjectId();
+		recipes("recipes",
+				new Document("_id", crepes).append("ingredients", new Document("Flour", 200).append("eggs", 3)),
+				new Document("_id", pancakes).append("ingredients", new Document(" flour ", 150.5).append("Milk", 0.25)
+						.append("salt", "a pinch")));
+
+		ShoppingList list = service.build(request(
+				new ShoppingListRequest.Item(crepes.toHexString(), 2.0),
+				new ShoppingListRequest.Item(pancakes.toHexString(), null),
+				new ShoppingListRequest.Item(crepes.toHexString(), 0.5)));
+
+		assertEquals(Map.of("flour", 650.5, "eggs", 7.5, "milk", 0.25), list.getIngredients());
+		assertEquals(List.of("eggs", "flour", "milk"), List.copyOf(list.getIngredients().keySet()));
+		assertEquals(List.of(), list.getMissingRecipeIds());
+		verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("recipe_details"));
+	}
+
+	@Test
+	void splitRecipesAreReadFromTheDetailsAndUnknownIdsReported() {
+		ObjectId inline = new ObjectId();
+		ObjectId split = new ObjectId();
+		String unknown = new ObjectId().toHexString();
+		recipes("recipes",
+				new Document("_id", inline).append("ingredients", new Document("sugar", 100)),
+				new Document("_id", split));
+		recipes("recipe_details",
+				new Document("_id", split).append("ingredients", new Document("Sugar", 50).append("butter", 80)));
+
+		ShoppingList list = service.build(request(
+				new ShoppingListRequest.Item(inline.toHexString(), 1.0),
+				new ShoppingListRequest.Item(split.toHexString(), 3.0),
+				new ShoppingListRequest.Item(unknown, 1.0)));
+
+		assertEquals(Map.of("sugar", 250.0, "butter", 240.0), list.getIngredients());
+		assertEquals(List.of(unknown), list.getMissingRecipeIds());
+	}
+
+	private void recipes(String collection, Document... recipes) {
+		when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(collection))).thenReturn(List.of(recipes));
+	}
+
+	private static ShoppingListRequest request(ShoppingListRequest.Item... items) {
+		return new ShoppingListRequest(List.of(items));
+	}
+}
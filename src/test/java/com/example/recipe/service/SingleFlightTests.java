@@ -0,0 +1,105 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTests {
+
+	@Test
+	void concurrentIdenticalCallsShareOneLoad() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5),
+				new SimpleMeterRegistry());
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(pool.submit(() -> flight.execute("recipe", () -> {
+				loads.incrementAndGet();
+				await(release);
+				return "loaded";
+			})));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loads.get());
+		pool.shutdown();
+	}
+
+	@Test
+	void failureReachesEveryWaitingCaller() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5),
+				new SimpleMeterRegistry());
+		IllegalStateException failure = new IllegalStateException("mongo down");
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(pool.submit(() -> flight.execute("recipe", () -> {
+				await(release);
+				throw failure;
+			})));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			ExecutionException ex = assertThrows(ExecutionException.class,
+					() -> result.get(5, TimeUnit.SECONDS));
+			assertSame(failure, ex.getCause());
+		}
+		// Nothing is cached: the next call loads again
+		assertEquals("fresh", flight.execute("recipe", () -> "fresh"));
+		pool.shutdown();
+	}
+
+	@Test
+	void waiterLoadsItselfAfterTheTimeout() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>("test", Duration.ofMillis(50),
+				new SimpleMeterRegistry());
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		Future<String> stuck = pool.submit(() -> flight.execute("recipe", () -> {
+			await(release);
+			return "slow";
+		}));
+		Thread.sleep(100);
+
+		assertEquals("own", flight.execute("recipe", () -> "own"));
+		release.countDown();
+		assertEquals("slow", stuck.get(5, TimeUnit.SECONDS));
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationServiceTests {
+
+	@Test
+	void bloomFilterHasNoFalseNegatives() {
+		TokenRevocationService.BloomFilter filter = new TokenRevocationService.BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("jti-" + i);
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain("jti-" + i), "jti-" + i);
+		}
+	}
+
+	@Test
+	void bloomFilterFalsePositiveRateStaysNearTheConfiguredRate() {
+		TokenRevocationService.BloomFilter filter = new TokenRevocationService.BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("revoked-" + i);
+		}
+
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("valid-" + i)) {
+				falsePositives++;
+			}
+		}
+
+		double rate = (double) falsePositives / probes;
+		assertTrue(rate < 0.02, "false positive rate " + rate);
+	}
+}
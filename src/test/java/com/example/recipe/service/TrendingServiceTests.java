@@ -0,0 +1,180 @@
+package com.example.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.example.recipe.dto.TrendingRecipe;
+import com.example.recipe.event.RecipeEvent;
+import com.example.recipe.model.Recipe;
+import com.example.recipe.model.TrendingScore;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+class TrendingServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulk = mock(BulkOperations.class);
+	private final List<Recipe> stored = new ArrayList<>();
+
+	@Test
+	void topKKeepsTheHighestScoresInOrder() {
+		TrendingService.TopK board = new TrendingService.TopK(3);
+		board.offer("a", 1);
+		board.offer("b", 5);
+		board.offer("c", 3);
+		board.offer("d", 0.5);
+		board.offer("e", 4);
+
+		assertEquals(List.of("b", "e", "c"), ids(board.snapshot(10)));
+		assertEquals(List.of("b", "e"), ids(board.snapshot(2)));
+	}
+
+	@Test
+	void topKUpdatesMembersInPlaceAndReopensRemovedSlots() {
+		TrendingService.TopK board = new TrendingService.TopK(2);
+		board.offer("a", 1);
+		board.offer("b", 2);
+		board.offer("a", 3);
+		assertEquals(List.of(new TrendingService.TopK.Entry("a", 3), new TrendingService.TopK.Entry("b", 2)),
+				board.snapshot(10));
+
+		board.remove("a");
+		board.remove("unknown");
+		// Below the old floor, but the heap is no longer full
+		board.offer("c", 0.5);
+		assertEquals(List.of("b", "c"), ids(board.snapshot(10)));
+	}
+
+	@Test
+	void eventsRankRecipesPerCuisine() {
+		TrendingService service = service(Duration.ofHours(6), 0.01);
+		service.recordView(recipe("a", "Thai"));
+		service.onEvents(List.of(RecipeEvent.of(RecipeEvent.Type.SAVED, recipe("b", "Italian"), "u1")));
+		// Counted by the node that handled the save
+		service.onEvents(List.of(RecipeEvent.remote(RecipeEvent.Type.SAVED, "c", recipe("c", "Thai"))));
+
+		List<TrendingRecipe> all = service.getTrending(null, 10);
+		assertEquals(List.of("b", "a"), all.stream().map(TrendingRecipe::getId).toList());
+		assertEquals(5.0, all.get(0).getTrendingScore(), 0.01);
+		assertEquals(1.0, all.get(1).getTrendingScore(), 0.01);
+		assertEquals(List.of("a"), trending(service, " THAI "));
+		assertEquals(List.of(), trending(service, "French"));
+	}
+
+	@Test
+	void cuisineChangeMovesTheRecipeToItsNewBoard() {
+		TrendingService service = service(Duration.ofHours(6), 0.01);
+		service.recordView(recipe("a", "Thai"));
+
+		service.onEvents(List.of(RecipeEvent.of(RecipeEvent.Type.UPDATED, recipe("a", "Italian"), "u1")));
+
+		assertEquals(List.of(), trending(service, "Thai"));
+		assertEquals(List.of("a"), trending(service, "Italian"));
+		assertEquals(List.of("a"), trending(service, null));
+		verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(TrendingScore.class));
+
+		// Stored by the node that handled the update
+		service.onEvents(List.of(RecipeEvent.remote(RecipeEvent.Type.UPDATED, "a", recipe("a", "French"))));
+		assertEquals(List.of("a"), trending(service, "French"));
+		verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(TrendingScore.class));
+	}
+
+	@Test
+	void deletedRecipesLeaveEveryBoard() {
+		TrendingService service = service(Duration.ofHours(6), 0.01);
+		service.recordView(recipe("a", "Thai"));
+		service.recordView(recipe("b", "Thai"));
+
+		service.onEvents(List.of(RecipeEvent.of(RecipeEvent.Type.DELETED, recipe("a", "Thai"), "u1")));
+
+		assertEquals(List.of("b"), trending(service, null));
+		assertEquals(List.of("b"), trending(service, "Thai"));
+		verify(mongoTemplate).remove(any(Query.class), eq(TrendingScore.class));
+	}
+
+	@Test
+	void rebaseKeepsRankingAndScores() throws InterruptedException {
+		// Rebases once the landmark is 32 half-lives old
+		TrendingService service = service(Duration.ofMillis(20), 0);
+		service.recordSave(recipe("a", "Thai"));
+		service.recordView(recipe("b", "Italian"));
+		Thread.sleep(700);
+
+		service.flush();
+		service.recordView(recipe("b", "Italian"));
+		service.recordView(recipe("b", "Italian"));
+		service.recordView(recipe("c", "Thai"));
+
+		List<TrendingRecipe> all = service.getTrending(null, 10);
+		assertEquals(List.of("b", "c", "a"), all.stream().map(TrendingRecipe::getId).toList());
+		assertTrue(all.get(0).getTrendingScore() <= 2.0 + 1e-6, "score " + all.get(0).getTrendingScore());
+		assertTrue(all.get(2).getTrendingScore() < 1e-6, "score " + all.get(2).getTrendingScore());
+		assertEquals(List.of("c", "a"), trending(service, "Thai"));
+	}
+
+	@Test
+	void scoresThatFailedToPersistAreRetriedOnce() {
+		TrendingService service = service(Duration.ofHours(6), 0.01);
+		service.recordView(recipe("a", "Thai"));
+		when(bulk.execute()).thenThrow(new BulkOperationException("write failed", new MongoBulkWriteException(
+				BulkWriteResult.unacknowledged(), List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)),
+				null, new ServerAddress(), Set.of()))).thenReturn(null);
+
+		service.flush();
+		service.flush();
+		service.flush();
+
+		ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+		verify(bulk, times(2)).upsert(any(Query.class), updates.capture());
+		verify(bulk, times(2)).execute();
+		// The retry adds the same score again, nothing more
+		assertEquals(updates.getAllValues().get(0).getUpdateObject().get("$inc"),
+				updates.getAllValues().get(1).getUpdateObject().get("$inc"));
+	}
+
+	private TrendingService service(Duration halfLife, double pruneBelow) {
+		when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TrendingScore.class)).thenReturn(bulk);
+		when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(stored);
+		return new TrendingService(mongoTemplate, halfLife, 10, 5, 1, pruneBelow);
+	}
+
+	private Recipe recipe(String id, String cuisine) {
+		Recipe recipe = new Recipe();
+		recipe.setId(id);
+		recipe.setTitle("Recipe " + id);
+		recipe.setCuisine(cuisine);
+		stored.removeIf(existing -> existing.getId().equals(id));
+		stored.add(recipe);
+		return recipe;
+	}
+
+	private static List<String> trending(TrendingService service, String cuisine) {
+		return service.getTrending(cuisine, 10).stream().map(TrendingRecipe::getId).toList();
+	}
+
+	private static List<String> ids(List<TrendingService.TopK.Entry> entries) {
+		return entries.stream().map(TrendingService.TopK.Entry::recipeId).toList();
+	}
+}